@@ -1,23 +1,40 @@
 package com.microservices.addressservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.addressservice.dto.AddressBulkRequest;
+import com.microservices.addressservice.dto.AddressDTO;
 import com.microservices.addressservice.entity.Address;
+import com.microservices.addressservice.exception.AddressAlreadyExistsException;
 import com.microservices.addressservice.service.AddressService;
+import com.microservices.commons.util.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/addresses")
 public class AddressController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AddressService addressService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public AddressController(AddressService addressService) {
+    public AddressController(AddressService addressService, ObjectMapper objectMapper) {
         this.addressService = addressService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -25,20 +42,93 @@ public class AddressController {
         try {
             Address savedAddress = addressService.saveAddress(address);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedAddress);
+        } catch (AddressAlreadyExistsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error saving address: " + e.getMessage());
         }
     }
 
+    // GET http://localhost:8082/addresses                       -> all addresses
+    // GET http://localhost:8082/addresses?page=0&size=50          -> offset page ordered by id
+    // GET http://localhost:8082/addresses?after=<lastId>&size=50  -> keyset page, next cursor in X-Next-Cursor
     @GetMapping
-    public ResponseEntity<List<Address>> getAddresses() {
+    public ResponseEntity<List<Address>> getAddresses(@RequestParam(required = false) Integer page,
+                                                      @RequestParam(required = false) Long after,
+                                                      @RequestParam(defaultValue = "50") int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (after != null) {
+            List<Address> addresses = addressService.getAddressesAfter(after, pageSize);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (addresses.size() == pageSize) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(addresses.get(addresses.size() - 1).getId()));
+            }
+            return response.body(addresses);
+        }
+        if (page != null) {
+            return ResponseEntity.ok(addressService.getAddressesPage(Math.max(page, 0), pageSize));
+        }
         return ResponseEntity.ok(addressService.getAddresses());
     }
 
+    // GET http://localhost:8082/addresses with "Accept: application/x-ndjson"
+    // Streams one address per line while rows are read from the database.
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAddresses() {
+        StreamingResponseBody body = outputStream -> addressService.streamAllAddresses(address -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(address));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Answers If-None-Match with 304 and no body when the customer's addresses have not changed
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Address>> getAddressesByCustomer(@PathVariable Long customerId) {
-        return ResponseEntity.ok(addressService.getAddressesByCustomerId(customerId));
+    public ResponseEntity<List<AddressDTO>> getAddressesByCustomer(@PathVariable Long customerId, WebRequest webRequest) {
+        List<AddressDTO> addresses = addressService.getAddressesByCustomerId(customerId);
+        String etag = eTagOf(addresses);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(addresses);
+    }
+
+    private String eTagOf(List<AddressDTO> addresses) {
+        ETags.Builder etag = ETags.builder();
+        for (AddressDTO address : addresses) {
+            etag.add(address.id())
+                    .add(address.addressName())
+                    .add(address.street())
+                    .add(address.city())
+                    .add(address.state())
+                    .add(address.zipCode())
+                    .add(address.customerId());
+        }
+        return etag.build();
+    }
+
+    // POST http://localhost:8082/addresses/customers with a JSON array of customer IDs
+    // Returns the addresses of all given customers in one round trip; callers group them by customerId.
+    @PostMapping("/customers")
+    public ResponseEntity<List<Address>> getAddressesByCustomers(@RequestBody Set<Long> customerIds) {
+        return ResponseEntity.ok(addressService.getAddressesByCustomerIds(customerIds));
+    }
+
+    // POST http://localhost:8082/addresses/customer/<customerID>/bulk
+    // Body: {"create": [...], "update": [...], "delete": [ids]}; returns the customer's resulting addresses
+    @PostMapping("/customer/{customerId}/bulk")
+    public ResponseEntity<List<Address>> applyBulk(@PathVariable Long customerId, @RequestBody AddressBulkRequest request) {
+        return ResponseEntity.ok(addressService.applyBulk(customerId, request));
     }
 
     @DeleteMapping("/customer/{customerId}")
@@ -50,4 +140,11 @@ public class AddressController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No addresses found for customerId: " + customerId);
         }
     }
+
+    // DELETE http://localhost:8082/addresses/customers?ids=1,2,3
+    @DeleteMapping("/customers")
+    public ResponseEntity<String> deleteAddressesByCustomerIds(@RequestParam Set<Long> ids) {
+        int deleted = addressService.deleteAddressesByCustomerIds(ids);
+        return ResponseEntity.ok("Deleted " + deleted + " addresses.");
+    }
 }
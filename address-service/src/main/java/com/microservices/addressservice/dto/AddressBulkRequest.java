@@ -0,0 +1,19 @@
+package com.microservices.addressservice.dto;
+
+import com.microservices.addressservice.entity.Address;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// All address mutations for one customer, applied by address-service in a single transaction
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddressBulkRequest {
+    private List<Address> create = new ArrayList<>();
+    private List<Address> update = new ArrayList<>();
+    private List<Long> delete = new ArrayList<>();
+}
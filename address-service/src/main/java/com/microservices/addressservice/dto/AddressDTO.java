@@ -0,0 +1,13 @@
+package com.microservices.addressservice.dto;
+
+import com.microservices.addressservice.entity.Address;
+
+// Immutable snapshot of an address, safe to share between callers of the address cache
+public record AddressDTO(Long id, String addressName, String street, String city, String state,
+                         String zipCode, Long customerId) {
+
+    public static AddressDTO from(Address address) {
+        return new AddressDTO(address.getId(), address.getAddressName(), address.getStreet(),
+                address.getCity(), address.getState(), address.getZipCode(), address.getCustomerId());
+    }
+}
@@ -0,0 +1,11 @@
+package com.microservices.addressservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class AddressNotFoundException extends RuntimeException {
+    public AddressNotFoundException(String message) {
+        super(message);
+    }
+}
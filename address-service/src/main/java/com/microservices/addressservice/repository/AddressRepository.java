@@ -1,15 +1,47 @@
 package com.microservices.addressservice.repository;
 
 import com.microservices.addressservice.entity.Address;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByCustomerId(Long customerId);
 
+    // Single IN query used by the batch lookup so that callers don't fan out one request per customer
+    List<Address> findByCustomerIdIn(Collection<Long> customerIds);
+
     @Query("SELECT a FROM Address a WHERE a.customerId = :customerId AND a.addressName = :addressName")
     Optional<Address> findByCustomerIdAndAddressName(Long customerId, String addressName);
+
+    // Set-based deletes: a single DELETE statement instead of loading and removing every entity
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.customerId = :customerId")
+    int deleteAllByCustomerId(Long customerId);
+
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.customerId IN :customerIds")
+    int deleteAllByCustomerIdIn(Collection<Long> customerIds);
+
+    // Offset pagination without the extra count query a Page would need
+    Slice<Address> findAllBy(Pageable pageable);
+
+    // Keyset (seek) pagination on the sequence-generated id
+    List<Address> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Must be consumed inside a transaction and closed by the caller
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a FROM Address a ORDER BY a.id")
+    Stream<Address> streamAllOrderById();
 }
@@ -1,54 +1,212 @@
 package com.microservices.addressservice.service;
 
+import com.microservices.addressservice.dto.AddressBulkRequest;
+import com.microservices.addressservice.dto.AddressDTO;
 import com.microservices.addressservice.entity.Address;
 import com.microservices.addressservice.exception.AddressAlreadyExistsException;
+import com.microservices.addressservice.exception.AddressNotFoundException;
 import com.microservices.addressservice.repository.AddressRepository;
+import com.microservices.commons.util.Constraints;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AddressService {
 
+    public static final String ADDRESSES_BY_CUSTOMER_CACHE = "addressesByCustomer";
+    // Oracle rejects IN lists of more than 1000 expressions (ORA-01795)
+    static final int MAX_IN_LIST_SIZE = 500;
+
     private final AddressRepository addressRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     public AddressService(AddressRepository addressRepository) {
         this.addressRepository = addressRepository;
     }
 
+    // Relies on the (customer_id, address_name) unique constraint instead of a lookup before the insert;
+    // any other violation (NOT NULL, ...) is not a duplicate and propagates unchanged
+    @CacheEvict(cacheNames = ADDRESSES_BY_CUSTOMER_CACHE, key = "#address.customerId")
     public Address saveAddress(Address address) {
-        Optional<Address> existingAddress = addressRepository.findByCustomerIdAndAddressName(
-                address.getCustomerId(), address.getAddressName()
-        );
-
-        if (existingAddress.isPresent()) {
+        try {
+            return addressRepository.saveAndFlush(address);
+        } catch (DataIntegrityViolationException e) {
+            // H2 reports the unique index backing the constraint
+            if (!Constraints.isViolationOf(e, "uk_address_customer_name", "idx_address_customer_name")) {
+                throw e;
+            }
             throw new AddressAlreadyExistsException("Address with the name '"
                     + address.getAddressName() + "' already exists for customer ID: "
                     + address.getCustomerId());
         }
-
-        return addressRepository.save(address);
     }
 
-    public List<Address> getAddressesByCustomerId(Long customerId) {
+    // Applies deletes, updates and creates for one customer in a single transaction; inserts and
+    // updates are flushed as JDBC batches (see hibernate.jdbc.batch_size). The whole request is
+    // validated before anything changes: unknown ids fail with 404, and address names that would clash
+    // once the request is applied fail with 409 instead of a constraint violation at flush.
+    @Transactional
+    @CacheEvict(cacheNames = ADDRESSES_BY_CUSTOMER_CACHE, key = "#customerId")
+    public List<Address> applyBulk(Long customerId, AddressBulkRequest request) {
+        Map<Long, Address> existingById = addressRepository.findByCustomerId(customerId).stream()
+                .collect(Collectors.toMap(Address::getId, Function.identity()));
+
+        Set<Long> deleteIds = new HashSet<>();
+        for (Long id : nullToEmpty(request.getDelete())) {
+            if (!existingById.containsKey(id)) {
+                throw new AddressNotFoundException("Address " + id + " not found for customer ID: " + customerId);
+            }
+            deleteIds.add(id);
+        }
+
+        // Address names the customer ends up with: kept addresses under their (possibly new) name,
+        // then the created ones
+        Map<Long, String> namesById = new HashMap<>();
+        existingById.values().stream()
+                .filter(address -> !deleteIds.contains(address.getId()))
+                .forEach(address -> namesById.put(address.getId(), address.getAddressName()));
+        for (Address update : nullToEmpty(request.getUpdate())) {
+            if (!namesById.containsKey(update.getId())) {
+                throw new AddressNotFoundException("Address " + update.getId() + " not found for customer ID: " + customerId);
+            }
+            namesById.put(update.getId(), update.getAddressName());
+        }
+        Set<String> addressNames = new HashSet<>();
+        List<String> finalNames = new ArrayList<>(namesById.values());
+        nullToEmpty(request.getCreate()).forEach(create -> finalNames.add(create.getAddressName()));
+        for (String name : finalNames) {
+            if (!addressNames.add(name)) {
+                throw new AddressAlreadyExistsException("Address with the name '"
+                        + name + "' already exists for customer ID: " + customerId);
+            }
+        }
+
+        // Delete first: the bulk delete flushes pending changes, and a rename onto the name of a deleted
+        // address must not reach the database while that address still exists
+        if (!deleteIds.isEmpty()) {
+            addressRepository.deleteAllByIdInBatch(deleteIds);
+        }
+        for (Address update : nullToEmpty(request.getUpdate())) {
+            Address existing = existingById.get(update.getId());
+            existing.setAddressName(update.getAddressName());
+            existing.setStreet(update.getStreet());
+            existing.setCity(update.getCity());
+            existing.setState(update.getState());
+            existing.setZipCode(update.getZipCode());
+        }
+        // Hibernate flushes inserts before updates; flush the updates first so a created address can
+        // take a name an existing address is renamed away from
+        entityManager.flush();
+
+        List<Address> toCreate = new ArrayList<>();
+        for (Address create : nullToEmpty(request.getCreate())) {
+            create.setId(null);
+            create.setCustomerId(customerId);
+            toCreate.add(create);
+        }
+        addressRepository.saveAll(toCreate);
         return addressRepository.findByCustomerId(customerId);
     }
 
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    // Cached as an unmodifiable list of immutable DTOs: every hit hands out the same instance
+    @Cacheable(cacheNames = ADDRESSES_BY_CUSTOMER_CACHE, key = "#customerId", sync = true)
+    public List<AddressDTO> getAddressesByCustomerId(Long customerId) {
+        return addressRepository.findByCustomerId(customerId).stream()
+                .map(AddressDTO::from)
+                .toList();
+    }
+
+    // One query per MAX_IN_LIST_SIZE customers, so any number of ids can be asked for
+    public List<Address> getAddressesByCustomerIds(Collection<Long> customerIds) {
+        if (customerIds == null || customerIds.isEmpty()) {
+            return List.of();
+        }
+        List<Address> addresses = new ArrayList<>();
+        for (List<Long> chunk : chunks(customerIds)) {
+            addresses.addAll(addressRepository.findByCustomerIdIn(chunk));
+        }
+        return addresses;
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += MAX_IN_LIST_SIZE) {
+            chunks.add(list.subList(from, Math.min(from + MAX_IN_LIST_SIZE, list.size())));
+        }
+        return chunks;
+    }
+
     public List<Address> getAddresses() {
         return addressRepository.findAll();
     }
 
-    public boolean deleteAddressesByCustomerId(Long customerId) {
-        List<Address> addresses = addressRepository.findByCustomerId(customerId);
+    public List<Address> getAddressesPage(int page, int size) {
+        return addressRepository.findAllBy(PageRequest.of(page, size, Sort.by("id"))).getContent();
+    }
 
-        if (addresses.isEmpty()) {
-            return false;
+    public List<Address> getAddressesAfter(Long afterId, int size) {
+        return addressRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size));
+    }
+
+    // Hands every address to the action as it is read from the cursor; each row is detached afterwards
+    // so the persistence context does not grow with the table.
+    @Transactional(readOnly = true)
+    public void streamAllAddresses(Consumer<Address> action) {
+        try (Stream<Address> addresses = addressRepository.streamAllOrderById()) {
+            addresses.forEach(address -> {
+                action.accept(address);
+                entityManager.detach(address);
+            });
         }
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = ADDRESSES_BY_CUSTOMER_CACHE, key = "#customerId")
+    public boolean deleteAddressesByCustomerId(Long customerId) {
+        return addressRepository.deleteAllByCustomerId(customerId) > 0;
+    }
 
-        addressRepository.deleteAll(addresses);
-        return true;
+    // Bulk purge for many customers, one statement per MAX_IN_LIST_SIZE ids in a single transaction;
+    // returns the number of deleted addresses
+    @Transactional
+    @CacheEvict(cacheNames = ADDRESSES_BY_CUSTOMER_CACHE, allEntries = true)
+    public int deleteAddressesByCustomerIds(Collection<Long> customerIds) {
+        if (customerIds == null || customerIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        for (List<Long> chunk : chunks(customerIds)) {
+            deleted += addressRepository.deleteAllByCustomerIdIn(chunk);
+        }
+        return deleted;
     }
 }
@@ -0,0 +1,14 @@
+-- Embedded-database variant of oracle/V1__baseline.sql
+CREATE SEQUENCE address_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE address (
+    id           BIGINT       NOT NULL,
+    address_name VARCHAR(255) NOT NULL,
+    street       VARCHAR(255) NOT NULL,
+    city         VARCHAR(255) NOT NULL,
+    state        VARCHAR(255) NOT NULL,
+    zip_code     VARCHAR(255) NOT NULL,
+    customer_id  BIGINT,
+    CONSTRAINT pk_address PRIMARY KEY (id),
+    CONSTRAINT uk_address_name UNIQUE (address_name)
+);
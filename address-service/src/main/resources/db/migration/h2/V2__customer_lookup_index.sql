@@ -0,0 +1,9 @@
+-- Embedded-database variant of oracle/V2__customer_lookup_index.sql
+ALTER SEQUENCE address_seq INCREMENT BY 50;
+
+ALTER TABLE address DROP CONSTRAINT uk_address_name;
+
+CREATE UNIQUE INDEX idx_address_customer_name ON address (customer_id, address_name);
+
+ALTER TABLE address ADD CONSTRAINT uk_address_customer_name
+    UNIQUE (customer_id, address_name);
@@ -0,0 +1,15 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+CREATE SEQUENCE address_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE address (
+    id           NUMBER(19, 0)      NOT NULL,
+    address_name VARCHAR2(255 CHAR) NOT NULL,
+    street       VARCHAR2(255 CHAR) NOT NULL,
+    city         VARCHAR2(255 CHAR) NOT NULL,
+    state        VARCHAR2(255 CHAR) NOT NULL,
+    zip_code     VARCHAR2(255 CHAR) NOT NULL,
+    customer_id  NUMBER(19, 0),
+    CONSTRAINT pk_address PRIMARY KEY (id),
+    CONSTRAINT uk_address_name UNIQUE (address_name)
+);
@@ -0,0 +1,24 @@
+-- Address uses @SequenceGenerator(allocationSize = 50): every nextval reserves a block of 50 ids
+ALTER SEQUENCE address_seq INCREMENT BY 50;
+
+-- address_name used to be unique across all customers. Drop that single-column unique constraint,
+-- whatever name Hibernate generated for it, and a per-customer constraint it may have added already.
+BEGIN
+    FOR c IN (SELECT uc.constraint_name
+              FROM user_constraints uc
+              JOIN user_cons_columns ucc ON ucc.constraint_name = uc.constraint_name
+              WHERE uc.table_name = 'ADDRESS' AND uc.constraint_type = 'U'
+              GROUP BY uc.constraint_name
+              HAVING (COUNT(*) = 1 AND MAX(ucc.column_name) = 'ADDRESS_NAME')
+                  OR uc.constraint_name = 'UK_ADDRESS_CUSTOMER_NAME') LOOP
+        EXECUTE IMMEDIATE 'ALTER TABLE address DROP CONSTRAINT ' || c.constraint_name || ' DROP INDEX';
+    END LOOP;
+END;
+/
+
+-- Serves findByCustomerId, findByCustomerIdIn and findByCustomerIdAndAddressName, and backs the
+-- per-customer uniqueness of address names
+CREATE UNIQUE INDEX idx_address_customer_name ON address (customer_id, address_name);
+
+ALTER TABLE address ADD CONSTRAINT uk_address_customer_name
+    UNIQUE (customer_id, address_name) USING INDEX idx_address_customer_name;
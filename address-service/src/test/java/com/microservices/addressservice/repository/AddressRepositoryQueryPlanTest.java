@@ -0,0 +1,68 @@
+package com.microservices.addressservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the Flyway migrations against an embedded database and fails if the hot lookups by customer_id
+// stop using the composite (customer_id, address_name) index and fall back to a full table scan.
+@DataJpaTest(showSql = false, properties = {
+        "logging.level.root=INFO",
+        "logging.level.org.springframework=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.microservices=INFO"
+})
+class AddressRepositoryQueryPlanTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void findByCustomerIdUsesIndex() throws SQLException {
+        assertUsesCustomerIndex("SELECT * FROM address WHERE customer_id = 42");
+    }
+
+    @Test
+    void findByCustomerIdAndAddressNameUsesIndex() throws SQLException {
+        assertUsesCustomerIndex("SELECT * FROM address WHERE customer_id = 42 AND address_name = 'Home'");
+    }
+
+    @Test
+    void findByCustomerIdInUsesIndex() throws SQLException {
+        assertUsesCustomerIndex("SELECT * FROM address WHERE customer_id IN (1, 2, 3)");
+    }
+
+    @Test
+    void deleteByCustomerIdUsesIndex() throws SQLException {
+        assertUsesCustomerIndex("DELETE FROM address WHERE customer_id = 42");
+    }
+
+    private void assertUsesCustomerIndex(String sql) throws SQLException {
+        String plan = explain(sql);
+        assertThat(plan)
+                .as("query plan for: %s", sql)
+                .doesNotContain("tableScan")
+                .containsIgnoringCase("idx_address_customer_name");
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+}
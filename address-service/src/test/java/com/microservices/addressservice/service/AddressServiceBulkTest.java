@@ -0,0 +1,105 @@
+package com.microservices.addressservice.service;
+
+import com.microservices.addressservice.dto.AddressBulkRequest;
+import com.microservices.addressservice.entity.Address;
+import com.microservices.addressservice.exception.AddressAlreadyExistsException;
+import com.microservices.addressservice.exception.AddressNotFoundException;
+import com.microservices.addressservice.repository.AddressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Bulk address changes are validated against the customer's resulting addresses before anything is
+// written, so name clashes surface as AddressAlreadyExistsException (409) and leave the data untouched.
+@DataJpaTest(showSql = false, properties = {
+        "logging.level.root=INFO",
+        "logging.level.org.springframework=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.microservices=INFO"
+})
+@Import(AddressService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AddressServiceBulkTest {
+
+    private static final long CUSTOMER_ID = 7L;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private Address home;
+    private Address work;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAllInBatch();
+        home = addressService.saveAddress(address(null, "Home"));
+        work = addressService.saveAddress(address(null, "Work"));
+    }
+
+    private static Address address(Long id, String name) {
+        return new Address(id, name, "1 Main Street", "Springfield", "IL", "62701", CUSTOMER_ID);
+    }
+
+    private static AddressBulkRequest request(List<Address> create, List<Address> update, List<Long> delete) {
+        return new AddressBulkRequest(new ArrayList<>(create), new ArrayList<>(update), new ArrayList<>(delete));
+    }
+
+    private List<String> names() {
+        return addressRepository.findByCustomerId(CUSTOMER_ID).stream().map(Address::getAddressName).sorted().toList();
+    }
+
+    @Test
+    void renamingOntoAnExistingNameIsAConflict() {
+        AddressBulkRequest request = request(List.of(), List.of(address(work.getId(), "Home")), List.of());
+
+        assertThatThrownBy(() -> addressService.applyBulk(CUSTOMER_ID, request))
+                .isInstanceOf(AddressAlreadyExistsException.class)
+                .hasMessageContaining("'Home'");
+        assertThat(names()).containsExactly("Home", "Work");
+    }
+
+    @Test
+    void duplicateNamesAmongCreatesAreAConflictAndNothingIsSaved() {
+        AddressBulkRequest request = request(List.of(address(null, "Cabin"), address(null, "Cabin")), List.of(), List.of());
+
+        assertThatThrownBy(() -> addressService.applyBulk(CUSTOMER_ID, request))
+                .isInstanceOf(AddressAlreadyExistsException.class);
+        assertThat(names()).containsExactly("Home", "Work");
+    }
+
+    @Test
+    void namesFreedByDeletesOrRenamesCanBeReused() {
+        AddressBulkRequest request = request(List.of(address(null, "Work")),
+                List.of(address(work.getId(), "Office"), address(home.getId(), "Old home")), List.of());
+        addressService.applyBulk(CUSTOMER_ID, request);
+        assertThat(names()).containsExactly("Office", "Old home", "Work");
+
+        Long oldHomeId = home.getId();
+        Long officeId = work.getId();
+        addressService.applyBulk(CUSTOMER_ID,
+                request(List.of(), List.of(address(officeId, "Old home")), List.of(oldHomeId)));
+        assertThat(names()).containsExactly("Old home", "Work");
+    }
+
+    @Test
+    void unknownAddressIsNotFound() {
+        AddressBulkRequest request = request(List.of(), List.of(address(-1L, "Nowhere")), List.of());
+
+        assertThatThrownBy(() -> addressService.applyBulk(CUSTOMER_ID, request))
+                .isInstanceOf(AddressNotFoundException.class);
+    }
+}
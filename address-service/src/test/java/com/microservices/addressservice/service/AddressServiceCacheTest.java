@@ -0,0 +1,80 @@
+package com.microservices.addressservice.service;
+
+import com.microservices.addressservice.config.CacheConfig;
+import com.microservices.addressservice.dto.AddressDTO;
+import com.microservices.addressservice.entity.Address;
+import com.microservices.addressservice.repository.AddressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The address cache with the service's own configuration: evictions wait for the commit, and cached
+// entries cannot be changed by the callers they are handed to.
+@DataJpaTest(showSql = false, properties = {
+        "spring.cache.cache-names=" + AddressService.ADDRESSES_BY_CUSTOMER_CACHE,
+        "logging.level.root=INFO",
+        "logging.level.org.springframework=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.microservices=INFO"
+})
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({AddressService.class, CacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AddressServiceCacheTest {
+
+    private static final long CUSTOMER_ID = 42L;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAllInBatch();
+        addressService.saveAddress(new Address(null, "Home", "1 Main Street", "Springfield", "IL", "62701", CUSTOMER_ID));
+    }
+
+    @Test
+    void evictionWaitsForTheCommitSoConcurrentReadsCannotCacheStaleRows() {
+        assertThat(addressService.getAddressesByCustomerId(CUSTOMER_ID)).hasSize(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            addressService.deleteAddressesByCustomerId(CUSTOMER_ID);
+            // A read on another thread before the commit still sees, and may cache, the committed row
+            List<AddressDTO> concurrent = CompletableFuture
+                    .supplyAsync(() -> addressService.getAddressesByCustomerId(CUSTOMER_ID))
+                    .join();
+            assertThat(concurrent).hasSize(1);
+        });
+
+        assertThat(addressService.getAddressesByCustomerId(CUSTOMER_ID)).isEmpty();
+    }
+
+    @Test
+    void cachedAddressesCannotBeModifiedByCallers() {
+        List<AddressDTO> addresses = addressService.getAddressesByCustomerId(CUSTOMER_ID);
+
+        assertThatThrownBy(addresses::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(addressService.getAddressesByCustomerId(CUSTOMER_ID)).isSameAs(addresses);
+        assertThat(addresses.get(0).addressName()).isEqualTo("Home");
+    }
+}
@@ -0,0 +1,78 @@
+package com.microservices.addressservice.service;
+
+import com.microservices.addressservice.entity.Address;
+import com.microservices.addressservice.repository.AddressRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Lookups and purges by many customer ids are split into IN lists of at most MAX_IN_LIST_SIZE,
+// which Oracle requires to stay within 1000 expressions.
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.root=INFO",
+        "logging.level.org.springframework=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.microservices=INFO"
+})
+@Import(AddressService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AddressServiceCustomerIdsTest {
+
+    private static final int CUSTOMERS = 2 * AddressService.MAX_IN_LIST_SIZE + 1;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Long> customerIds;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAllInBatch();
+        customerIds = LongStream.rangeClosed(1, CUSTOMERS).boxed().toList();
+        List<Address> addresses = new ArrayList<>();
+        for (Long customerId : customerIds) {
+            addresses.add(new Address(null, "Home", "1 Main Street", "Springfield", "IL", "62701", customerId));
+        }
+        addressRepository.saveAll(addresses);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findsAddressesOfMoreCustomersThanOneInListHolds() {
+        List<Address> addresses = addressService.getAddressesByCustomerIds(customerIds);
+
+        assertThat(addresses).hasSize(CUSTOMERS);
+        assertThat(addresses).extracting(Address::getCustomerId).containsExactlyInAnyOrderElementsOf(customerIds);
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3);
+    }
+
+    @Test
+    void deletesAddressesOfMoreCustomersThanOneInListHolds() {
+        assertThat(addressService.deleteAddressesByCustomerIds(customerIds)).isEqualTo(CUSTOMERS);
+
+        assertThat(addressRepository.count()).isZero();
+    }
+}
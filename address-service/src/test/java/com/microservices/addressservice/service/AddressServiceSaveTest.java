@@ -0,0 +1,57 @@
+package com.microservices.addressservice.service;
+
+import com.microservices.addressservice.entity.Address;
+import com.microservices.addressservice.exception.AddressAlreadyExistsException;
+import com.microservices.addressservice.repository.AddressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Only a violation of the (customer_id, address_name) unique constraint is reported as a duplicate
+@DataJpaTest(showSql = false, properties = {
+        "logging.level.root=INFO",
+        "logging.level.org.springframework=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.microservices=INFO"
+})
+@Import(AddressService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AddressServiceSaveTest {
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAllInBatch();
+        addressService.saveAddress(address("Home", "1 Main Street"));
+    }
+
+    private static Address address(String name, String street) {
+        return new Address(null, name, street, "Springfield", "IL", "62701", 3L);
+    }
+
+    @Test
+    void duplicateNameIsAConflict() {
+        assertThatThrownBy(() -> addressService.saveAddress(address("Home", "2 Main Street")))
+                .isInstanceOf(AddressAlreadyExistsException.class);
+    }
+
+    @Test
+    void otherViolationsAreNotReportedAsDuplicates() {
+        assertThatThrownBy(() -> addressService.saveAddress(address("Work", null)))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(AddressAlreadyExistsException.class);
+    }
+}
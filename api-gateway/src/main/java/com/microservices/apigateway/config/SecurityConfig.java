@@ -1,13 +1,15 @@
 package com.microservices.apigateway.config;
 
-import com.microservices.apigateway.filter.JwtAuthenticationFilter;
 import com.microservices.apigateway.security.CustomAuthenticationEntryPoint;
+import com.microservices.apigateway.security.JwtTokenVerifier;
+import com.microservices.apigateway.security.JwtValidationWebFilter;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
@@ -16,10 +18,12 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 public class SecurityConfig {
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
 
-    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final ObservationRegistry observationRegistry;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
-        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    public SecurityConfig(JwtTokenVerifier jwtTokenVerifier, ObservationRegistry observationRegistry) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.observationRegistry = observationRegistry;
     }
 
     @Bean
@@ -33,7 +37,10 @@ public class SecurityConfig {
                         .pathMatchers("/address-service/**").authenticated()
                         .anyExchange().permitAll()
                 )
-                .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
+                // Single validation pass shared with the gateway filters (replaces oauth2ResourceServer().jwt(),
+                // which verified every token a second time against the JWKS endpoint)
+                .addFilterAt(new JwtValidationWebFilter(jwtTokenVerifier, observationRegistry),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
                 .exceptionHandling(exceptionHandling -> exceptionHandling
                         .authenticationEntryPoint(new CustomAuthenticationEntryPoint()) // Custom error handler
                 )
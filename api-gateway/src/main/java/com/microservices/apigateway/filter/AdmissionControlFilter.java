@@ -0,0 +1,166 @@
+package com.microservices.apigateway.filter;
+
+import com.microservices.apigateway.ratelimit.AdaptiveConcurrencyLimiter;
+import com.microservices.apigateway.ratelimit.ClientRateLimiter;
+import com.microservices.apigateway.security.JwtValidationResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds load before any other gateway work is done: first a per-client token bucket keyed by the JWT
+ * client_id/subject (or the remote address), then an adaptive concurrency limit per route. The rate
+ * limit is opt-in (rate-limit.enabled) and never applies to the verified principals listed in
+ * rate-limit.exempt-clients, such as service accounts that fan in traffic of many users. Rejected
+ * requests get 429 with a Retry-After header. The concurrency limit is opt-in too
+ * (concurrency-limit.enabled) and judges the backend by its time to first byte, so long streamed
+ * responses are not taken for slow ones. Everything is kept in local memory, so with several
+ * gateway instances each one enforces the limits on its own share of the traffic.
+ */
+@Component
+public class AdmissionControlFilter implements GlobalFilter, Ordered {
+    private final MeterRegistry meterRegistry;
+    private final boolean rateLimitEnabled;
+    private final ClientRateLimiter clientRateLimiter;
+    private final Set<String> exemptClients;
+    private final boolean concurrencyLimitEnabled;
+    private final Map<String, AdaptiveConcurrencyLimiter> routeLimiters = new ConcurrentHashMap<>();
+
+    @Value("${concurrency-limit.initial:100}")
+    private int initialLimit = 100;
+
+    @Value("${concurrency-limit.min:10}")
+    private int minLimit = 10;
+
+    @Value("${concurrency-limit.max:1000}")
+    private int maxLimit = 1000;
+
+    @Value("${concurrency-limit.backoff-ratio:0.9}")
+    private double backoffRatio = 0.9;
+
+    @Value("${concurrency-limit.latency-threshold-ms:1000}")
+    private long latencyThresholdMs = 1000;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+                                  @Value("${rate-limit.enabled:false}") boolean rateLimitEnabled,
+                                  @Value("${rate-limit.requests-per-second:50}") double requestsPerSecond,
+                                  @Value("${rate-limit.burst:100}") int burst,
+                                  @Value("${rate-limit.max-clients:100000}") long maxClients,
+                                  @Value("${rate-limit.exempt-clients:}") Set<String> exemptClients,
+                                  @Value("${concurrency-limit.enabled:false}") boolean concurrencyLimitEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.clientRateLimiter = new ClientRateLimiter(requestsPerSecond, burst, maxClients);
+        this.exemptClients = Set.copyOf(exemptClients);
+        this.concurrencyLimitEnabled = concurrencyLimitEnabled;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unrouted";
+
+        if (rateLimitEnabled && !isExempt(exchange)) {
+            long waitNanos = clientRateLimiter.tryAcquire(resolveClientKey(exchange));
+            if (waitNanos > 0) {
+                return reject(exchange, routeId, "rate", TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            }
+        }
+        if (!concurrencyLimitEnabled) {
+            return chain.filter(exchange);
+        }
+
+        AdaptiveConcurrencyLimiter limiter = routeLimiters.computeIfAbsent(routeId, this::createRouteLimiter);
+        if (!limiter.tryAcquire()) {
+            return reject(exchange, routeId, "concurrency", 1);
+        }
+        long start = System.nanoTime();
+        // The slot is held for the whole exchange, but latency is measured up to the response commit:
+        // NDJSON streams keep writing long after the backend has answered
+        AtomicLong committedAt = new AtomicLong();
+        exchange.getResponse().beforeCommit(() -> {
+            committedAt.compareAndSet(0, System.nanoTime());
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    long end = committedAt.get() != 0 ? committedAt.get() : System.nanoTime();
+                    limiter.release(end - start, failed);
+                });
+    }
+
+    /**
+     * The client_id (service accounts) or subject of the bearer token, once the security chain has
+     * verified it; the remote address otherwise. Unverified claims are never used as the key, so a client
+     * cannot dodge its bucket by sending forged tokens with fresh subjects.
+     */
+    String resolveClientKey(ServerWebExchange exchange) {
+        JwtValidationResult validation = exchange.getAttribute(JwtValidationResult.ATTRIBUTE);
+        String principal = validation != null ? validation.principal() : null;
+        if (principal != null) {
+            return "jwt:" + principal;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null) {
+            return "ip:unknown";
+        }
+        // Unresolved addresses have no InetAddress, only the host string
+        return "ip:" + (remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString());
+    }
+
+    private boolean isExempt(ServerWebExchange exchange) {
+        if (exemptClients.isEmpty()) {
+            return false;
+        }
+        JwtValidationResult validation = exchange.getAttribute(JwtValidationResult.ATTRIBUTE);
+        String principal = validation != null ? validation.principal() : null;
+        return principal != null && exemptClients.contains(principal);
+    }
+
+    private AdaptiveConcurrencyLimiter createRouteLimiter(String routeId) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                backoffRatio, latencyThresholdMs);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String reason, long retryAfterSeconds) {
+        meterRegistry.counter("gateway.admission.rejected", "route", routeId, "reason", reason).increment();
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+}
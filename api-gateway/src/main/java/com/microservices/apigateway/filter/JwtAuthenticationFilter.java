@@ -1,7 +1,15 @@
 package com.microservices.apigateway.filter;
 
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.apigateway.security.JwtTokenVerifier;
+import com.microservices.apigateway.security.JwtValidationResult;
+import com.microservices.apigateway.security.TokenExpiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,23 +24,23 @@ import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.security.KeyFactory;
-import java.security.PublicKey;
-import java.security.spec.X509EncodedKeySpec;
-import java.util.Base64;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final WebClient webClient;
-    private final Map<String, String> tokenCache = new ConcurrentHashMap<>(); // Store refreshed tokens
-
-    @Value("${keycloak.realm.public-key}")
-    private String keycloakPublicKey;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final ObservationRegistry observationRegistry;
+    // Refreshed tokens keyed by the hash of the expired token; entries expire with the new token
+    private final Cache<String, RefreshedToken> tokenCache;
+    // Refreshes currently in progress keyed by the hash of the refresh token, shared by concurrent requests
+    private final Map<String, Mono<RefreshedToken>> inFlightRefreshes = new ConcurrentHashMap<>();
 
     @Value("${keycloak.token-endpoint}")
     private String keycloakTokenEndpoint;
@@ -43,8 +51,20 @@ public class JwtAuthenticationFilter implements GlobalFilter {
     @Value("${spring.security.oauth2.client.registration.keycloak.client-secret}")
     private String clientSecret;
 
-    public JwtAuthenticationFilter(WebClient.Builder webClientBuilder) {
+    public JwtAuthenticationFilter(WebClient.Builder webClientBuilder, JwtTokenVerifier jwtTokenVerifier,
+                                   ObservationRegistry observationRegistry, MeterRegistry meterRegistry,
+                                   @Value("${jwt.refreshed-cache.max-size:10000}") long refreshedCacheMaxSize,
+                                   @Value("${jwt.refreshed-cache.max-ttl-seconds:300}") long refreshedCacheMaxTtlSeconds) {
         this.webClient = webClientBuilder.build();
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.observationRegistry = observationRegistry;
+        this.tokenCache = Caffeine.newBuilder()
+                .maximumSize(refreshedCacheMaxSize)
+                .expireAfter(new TokenExpiry<String, RefreshedToken>(RefreshedToken::expiresAt,
+                        Duration.ofSeconds(refreshedCacheMaxTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokenCache, "jwt.refreshed");
     }
 
     @Override
@@ -59,53 +79,21 @@ public class JwtAuthenticationFilter implements GlobalFilter {
 
         String accessToken = authHeader.substring(7);
         // Check if we already have a refreshed token in memory
-        if (tokenCache.containsKey(accessToken)) {
-            String refreshedToken = tokenCache.get(accessToken);
+        RefreshedToken refreshedToken = tokenCache.getIfPresent(JwtTokenVerifier.hash(accessToken));
+        if (refreshedToken != null) {
             logger.info("Using refreshed token from cache.");
-            return forwardRequestWithNewToken(exchange, chain, refreshedToken);
+            return forwardRequestWithNewToken(exchange, chain, refreshedToken.accessToken());
         }
 
-        return validateToken(accessToken)
-                .flatMap(isValid -> {
-                    if (isValid) {
-                        return chain.filter(exchange);
-                    } else {
-                        return handleTokenExpiration(exchange, chain, accessToken);
-                    }
-                })
-                .onErrorResume(e -> {
-                    logger.error("Error during token validation: {}", e.getMessage());
-                    return chain.filter(exchange);
-                });
-    }
-
-    private PublicKey getPublicKey(String publicKeyStr) throws Exception {
-        byte[] decodedKey = Base64.getDecoder().decode(publicKeyStr);
-        X509EncodedKeySpec spec = new X509EncodedKeySpec(decodedKey);
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        return keyFactory.generatePublic(spec);
-    }
-
-    private Mono<Boolean> validateToken(String token) {
-        logger.info("Started validateToken method in JwtAuthenticationFilter...");
-        return Mono.fromCallable(() -> {
-            try {
-                String publicKeyStr = keycloakPublicKey;  // Replace with actual public key
-                PublicKey publicKey = getPublicKey(publicKeyStr);
-
-                Jwts.parserBuilder()
-                        .setSigningKey(publicKey)
-                        .build()
-                        .parseClaimsJws(token);
-                return true;
-            } catch (ExpiredJwtException e) {
-                logger.info("Token expired: {}", e.getMessage());
-                return false;
-            } catch (Exception e) {
-                logger.error("Token validation error: {}", e.getMessage());
-                return false;
-            }
-        }).subscribeOn(Schedulers.boundedElastic());
+        // Validated once by JwtValidationWebFilter in the security chain; only validate here if it did not run
+        JwtValidationResult validation = exchange.getAttribute(JwtValidationResult.ATTRIBUTE);
+        if (validation == null) {
+            validation = jwtTokenVerifier.validate(accessToken);
+        }
+        if (validation.isValid()) {
+            return chain.filter(exchange);
+        }
+        return handleTokenExpiration(exchange, chain, accessToken);
     }
 
     private Mono<Void> handleTokenExpiration(ServerWebExchange exchange, GatewayFilterChain chain, String oldAccessToken) {
@@ -118,13 +106,13 @@ public class JwtAuthenticationFilter implements GlobalFilter {
             return exchange.getResponse().setComplete();
         }
 
-        return refreshAccessToken(refreshToken)
-                .flatMap(newAccessToken -> {
-                    logger.info("New access token obtained: {}", newAccessToken);
+        return refreshOnce(refreshToken)
+                .flatMap(newToken -> {
+                    logger.info("New access token obtained.");
 
                     // Store the new token in cache
-                    tokenCache.put(oldAccessToken, newAccessToken);
-                    return forwardRequestWithNewToken(exchange, chain, newAccessToken);
+                    tokenCache.put(JwtTokenVerifier.hash(oldAccessToken), newToken);
+                    return forwardRequestWithNewToken(exchange, chain, newToken.accessToken());
                 })
                 .onErrorResume(e -> {
                     logger.error("Error refreshing token: {}", e.getMessage());
@@ -133,11 +121,19 @@ public class JwtAuthenticationFilter implements GlobalFilter {
                 });
     }
 
-    private Mono<String> refreshAccessToken(String refreshToken) {
+    // Single-flight: concurrent requests carrying the same refresh token share one call to Keycloak
+    private Mono<RefreshedToken> refreshOnce(String refreshToken) {
+        String key = JwtTokenVerifier.hash(refreshToken);
+        return inFlightRefreshes.computeIfAbsent(key, k -> refreshAccessToken(refreshToken)
+                .doFinally(signal -> inFlightRefreshes.remove(k))
+                .cache());
+    }
+
+    private Mono<RefreshedToken> refreshAccessToken(String refreshToken) {
         logger.info("Refreshing access token...");
         String keycloakTokenUrl = keycloakTokenEndpoint;
 
-        return webClient.post()
+        return observe("keycloak.token.refresh", webClient.post()
                 .uri(keycloakTokenUrl)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(BodyInserters.fromFormData("grant_type", "refresh_token")
@@ -146,7 +142,31 @@ public class JwtAuthenticationFilter implements GlobalFilter {
                         .with("refresh_token", refreshToken))
                 .retrieve()
                 .bodyToMono(Map.class)
-                .map(response -> (String) response.get("access_token"));
+                .map(response -> {
+                    Number expiresIn = (Number) response.get("expires_in");
+                    Instant expiresAt = expiresIn != null
+                            ? Instant.now().plusSeconds(expiresIn.longValue())
+                            : Instant.now();
+                    return new RefreshedToken((String) response.get("access_token"), expiresAt);
+                }), token -> "success");
+    }
+
+    // Runs the Mono inside a child span of the current request's observation (taken from the Reactor
+    // context). The WebClient call to Keycloak nests under the refresh span the same way. Each
+    // observation is also a timer of the same name, tagged with the outcome.
+    private <T> Mono<T> observe(String name, Mono<T> mono, Function<T, String> outcome) {
+        return Mono.deferContextual(context -> {
+            Observation observation = Observation.createNotStarted(name, observationRegistry)
+                    .parentObservation(context.getOrDefault(ObservationThreadLocalAccessor.KEY, null))
+                    // Overwritten below; cancelled requests keep this value so every timer has the tag
+                    .lowCardinalityKeyValue("outcome", "cancelled")
+                    .start();
+            return mono
+                    .doOnNext(value -> observation.lowCardinalityKeyValue("outcome", outcome.apply(value)))
+                    .doOnError(e -> observation.lowCardinalityKeyValue("outcome", "error").error(e))
+                    .doFinally(signal -> observation.stop())
+                    .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
     }
 
     private Mono<Void> forwardRequestWithNewToken(ServerWebExchange exchange, GatewayFilterChain chain, String newToken) {
@@ -157,4 +177,7 @@ public class JwtAuthenticationFilter implements GlobalFilter {
         ServerWebExchange newExchange = exchange.mutate().request(newRequest).build();
         return chain.filter(newExchange);
     }
+
+    private record RefreshedToken(String accessToken, Instant expiresAt) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.microservices.apigateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit for one route that adapts to the backend (AIMD): every fast, successful response
+ * raises the limit by 1/limit while the route is at least half busy; a slow or failed (5xx) response
+ * multiplies it by the backoff ratio. When the backend slows down the gateway sheds excess requests
+ * instead of queueing them in front of it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Double stored as raw bits so it can be updated with compare-and-set
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      long latencyThresholdMs) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        int busy = inFlight.getAndDecrement();
+        boolean overloaded = failed || latencyNanos > latencyThresholdNanos;
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double updated;
+            if (overloaded) {
+                updated = Math.max(minLimit, limit * backoffRatio);
+            } else if (busy * 2 >= limit) {
+                updated = Math.min(maxLimit, limit + 1 / limit);
+            } else {
+                return;
+            }
+            if (limitBits.compareAndSet(bits, Double.doubleToLongBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
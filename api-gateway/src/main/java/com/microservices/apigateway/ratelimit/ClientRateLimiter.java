@@ -0,0 +1,49 @@
+package com.microservices.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token bucket per client, implemented as GCRA: each bucket is a single "theoretical arrival
+ * time" updated with a compare-and-set, so admitting a request takes no lock. Buckets live in a
+ * Caffeine cache (itself striped and concurrent) and are evicted once idle long enough to be full
+ * again, which makes eviction invisible to clients.
+ */
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(burst, 1) - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(emissionIntervalNanos + burstToleranceNanos).plusSeconds(1))
+                .build();
+    }
+
+    /**
+     * Takes one token for the client. Returns 0 if the request is admitted, otherwise the number of
+     * nanoseconds until a token becomes available.
+     */
+    public long tryAcquire(String clientKey) {
+        long now = System.nanoTime();
+        AtomicLong theoreticalArrival = buckets.get(clientKey, k -> new AtomicLong(now));
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long allowedAt = Math.max(tat, now) - burstToleranceNanos;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (theoreticalArrival.compareAndSet(tat, Math.max(tat, now) + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.microservices.apigateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Verifies Keycloak-signed JWTs with an RSA public key that is parsed once and rebuilt only when the
+ * configured key changes. Successfully verified tokens are remembered by their SHA-256 hash until their
+ * own expiry (capped by a max TTL), together with their decoded claims, so repeated requests with the same
+ * token skip signature checks and parsing.
+ */
+@Component
+public class JwtTokenVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenVerifier.class);
+    private static final String PUBLIC_KEY_PROPERTY = "keycloak.realm.public-key";
+
+    private final Environment environment;
+    private final Cache<String, Jwt> verifiedTokens;
+
+    private volatile String publicKeyStr;
+    private volatile JwtParser jwtParser;
+
+    public JwtTokenVerifier(Environment environment, MeterRegistry meterRegistry,
+                            @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+                            @Value("${jwt.verified-cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.environment = environment;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry<String, Jwt>(jwt -> jwt.getExpiresAt() != null ? jwt.getExpiresAt() : Instant.MAX,
+                        Duration.ofSeconds(maxTtlSeconds)))
+                .recordStats()
+                .build();
+        // Hit ratio of cache.gets{cache="jwt.verified"} is the share of requests that skip signature checks
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
+        rebuildParser(environment.getRequiredProperty(PUBLIC_KEY_PROPERTY));
+    }
+
+    /**
+     * Returns the result for a token that was already verified and has not expired yet, or null if the
+     * token has to go through {@link #validate(String)}. Never does any crypto.
+     */
+    public JwtValidationResult getVerified(String token) {
+        Jwt jwt = verifiedTokens.getIfPresent(hash(token));
+        return jwt != null && isUnexpired(jwt) ? JwtValidationResult.valid(jwt) : null;
+    }
+
+    /**
+     * Verifies the signature and expiry of the token with the pre-built parser. Runs on the calling
+     * thread (a few tens of microseconds for RS256) and never throws.
+     */
+    public JwtValidationResult validate(String token) {
+        try {
+            return JwtValidationResult.valid(parseAndRemember(token));
+        } catch (ExpiredJwtException e) {
+            logger.info("Token expired: {}", e.getMessage());
+            return JwtValidationResult.expired();
+        } catch (SignatureException e) {
+            // The realm key may have been rotated underneath us; retry once with the current key
+            if (reloadPublicKey()) {
+                return validate(token);
+            }
+            logger.error("Token validation error: {}", e.getMessage());
+            return JwtValidationResult.invalid();
+        } catch (Exception e) {
+            logger.error("Token validation error: {}", e.getMessage());
+            return JwtValidationResult.invalid();
+        }
+    }
+
+    private Jwt parseAndRemember(String token) {
+        Jws<Claims> jws = jwtParser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        // getHeader() returns the raw JwsHeader type; read it through a wildcard map to stay type-safe
+        Map<?, ?> header = jws.getHeader();
+        Jwt jwt = Jwt.withTokenValue(token)
+                .headers(headers -> header.forEach((name, value) -> headers.put((String) name, value)))
+                .claims(values -> {
+                    values.putAll(claims);
+                    // Spring's Jwt expects timestamps as Instants, jjwt keeps them as epoch seconds
+                    putInstant(values, JwtClaimNames.EXP, claims.getExpiration());
+                    putInstant(values, JwtClaimNames.IAT, claims.getIssuedAt());
+                    putInstant(values, JwtClaimNames.NBF, claims.getNotBefore());
+                })
+                .build();
+        verifiedTokens.put(hash(token), jwt);
+        return jwt;
+    }
+
+    private static void putInstant(Map<String, Object> claims, String name, Date value) {
+        if (value != null) {
+            claims.put(name, value.toInstant());
+        }
+    }
+
+    private static boolean isUnexpired(Jwt jwt) {
+        return jwt.getExpiresAt() == null || jwt.getExpiresAt().isAfter(Instant.now());
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().contains(PUBLIC_KEY_PROPERTY)) {
+            reloadPublicKey();
+        }
+    }
+
+    private synchronized boolean reloadPublicKey() {
+        String current = environment.getProperty(PUBLIC_KEY_PROPERTY);
+        if (current == null || current.equals(publicKeyStr)) {
+            return false;
+        }
+        logger.info("Keycloak realm public key changed, rebuilding JWT parser.");
+        rebuildParser(current);
+        verifiedTokens.invalidateAll();
+        return true;
+    }
+
+    private void rebuildParser(String keyStr) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(getPublicKey(keyStr))
+                .build();
+        this.publicKeyStr = keyStr;
+    }
+
+    private static PublicKey getPublicKey(String publicKeyStr) {
+        try {
+            byte[] decodedKey = Base64.getDecoder().decode(publicKeyStr);
+            X509EncodedKeySpec spec = new X509EncodedKeySpec(decodedKey);
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            return keyFactory.generatePublic(spec);
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid Keycloak realm public key", e);
+        }
+    }
+
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.microservices.apigateway.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Outcome of the single validation pass over a request's bearer token. Stored on the exchange under
+ * {@link #ATTRIBUTE} by {@link JwtValidationWebFilter} so later gateway filters reuse it instead of
+ * verifying the token again.
+ */
+public record JwtValidationResult(Status status, Jwt jwt) {
+
+    public static final String ATTRIBUTE = JwtValidationResult.class.getName();
+
+    public enum Status { VALID, EXPIRED, INVALID }
+
+    static JwtValidationResult valid(Jwt jwt) {
+        return new JwtValidationResult(Status.VALID, jwt);
+    }
+
+    static JwtValidationResult expired() {
+        return new JwtValidationResult(Status.EXPIRED, null);
+    }
+
+    static JwtValidationResult invalid() {
+        return new JwtValidationResult(Status.INVALID, null);
+    }
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    /**
+     * The client_id of service-account tokens, otherwise the subject; null unless the token is valid.
+     */
+    public String principal() {
+        if (jwt == null) {
+            return null;
+        }
+        String clientId = jwt.getClaimAsString("client_id");
+        return clientId != null ? clientId : jwt.getSubject();
+    }
+}
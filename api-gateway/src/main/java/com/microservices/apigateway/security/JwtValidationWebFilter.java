@@ -0,0 +1,67 @@
+package com.microservices.apigateway.security;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Validates the bearer token once per request, inline on the event loop, and shares the outcome:
+ * the result is stored in the exchange attributes for the gateway filters and a valid token becomes
+ * the authentication of the security chain. Expired or invalid tokens leave the request anonymous so
+ * protected paths answer 401 and {@code JwtAuthenticationFilter} can still try a refresh.
+ */
+public class JwtValidationWebFilter implements WebFilter {
+
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final ObservationRegistry observationRegistry;
+    private final JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+
+    public JwtValidationWebFilter(JwtTokenVerifier jwtTokenVerifier, ObservationRegistry observationRegistry) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        String token = authHeader.substring(7);
+        return Mono.deferContextual(context -> {
+            JwtValidationResult result = jwtTokenVerifier.getVerified(token);
+            if (result == null) {
+                result = observeValidation(token, context.getOrDefault(ObservationThreadLocalAccessor.KEY, null));
+            }
+            exchange.getAttributes().put(JwtValidationResult.ATTRIBUTE, result);
+            if (!result.isValid()) {
+                return chain.filter(exchange);
+            }
+            Authentication authentication = authenticationConverter.convert(result.jwt());
+            return chain.filter(exchange)
+                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        });
+    }
+
+    // Only signature checks are observed; cache hits cost a hash lookup and would drown the timer
+    private JwtValidationResult observeValidation(String token, Observation parent) {
+        Observation observation = Observation.createNotStarted("jwt.validation", observationRegistry)
+                .parentObservation(parent)
+                .start();
+        try {
+            JwtValidationResult result = jwtTokenVerifier.validate(token);
+            observation.lowCardinalityKeyValue("outcome", result.status().name().toLowerCase());
+            return result;
+        } finally {
+            observation.stop();
+        }
+    }
+}
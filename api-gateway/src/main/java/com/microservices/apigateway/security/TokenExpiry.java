@@ -0,0 +1,39 @@
+package com.microservices.apigateway.security;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Caffeine expiry policy for token caches: an entry lives until the expiry instant of the token it
+ * describes, but never longer than the given max TTL. Reads do not extend the lifetime.
+ */
+public class TokenExpiry<K, V> implements Expiry<K, V> {
+
+    private final Function<V, Instant> expiresAt;
+    private final Duration maxTtl;
+
+    public TokenExpiry(Function<V, Instant> expiresAt, Duration maxTtl) {
+        this.expiresAt = expiresAt;
+        this.maxTtl = maxTtl;
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        Duration untilExpiry = Duration.between(Instant.now(), expiresAt.apply(value));
+        Duration ttl = untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+        return Math.max(0, ttl.toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,127 @@
+package com.microservices.apigateway.filter;
+
+import com.microservices.apigateway.security.JwtValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionControlFilterTest {
+
+    private final GatewayFilterChain chain = exchange -> Mono.empty();
+
+    private static AdmissionControlFilter filter(boolean rateLimitEnabled, Set<String> exemptClients) {
+        return new AdmissionControlFilter(new SimpleMeterRegistry(), rateLimitEnabled, 0.5, 2, 100, exemptClients,
+                false);
+    }
+
+    private HttpStatusCode send(AdmissionControlFilter filter, String clientId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/customers"));
+        if (clientId != null) {
+            Jwt jwt = Jwt.withTokenValue("token").header("alg", "RS256").claim("client_id", clientId).build();
+            exchange.getAttributes().put(JwtValidationResult.ATTRIBUTE,
+                    new JwtValidationResult(JwtValidationResult.Status.VALID, jwt));
+        }
+        filter.filter(exchange, chain).block();
+        return exchange.getResponse().getStatusCode();
+    }
+
+    // Concurrency limit on (initial 100, backoff 0.9) with a 50ms latency threshold
+    private static AdmissionControlFilter concurrencyLimited(SimpleMeterRegistry meterRegistry) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(meterRegistry, false, 0.5, 2, 100, Set.of(), true);
+        ReflectionTestUtils.setField(filter, "latencyThresholdMs", 50L);
+        return filter;
+    }
+
+    private static DataBuffer line(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap((text + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static double routeLimit(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.get("gateway.concurrency.limit").tag("route", "unrouted").gauge().value();
+    }
+
+    @Test
+    void longStreamsAreJudgedByTheirFirstByte() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = concurrencyLimited(meterRegistry);
+        GatewayFilterChain streaming = exchange -> exchange.getResponse().writeWith(
+                Flux.just(line("first")).concatWith(Mono.delay(Duration.ofMillis(200)).map(ignored -> line("last"))));
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/customers")), streaming).block();
+
+        assertEquals(100, routeLimit(meterRegistry));
+    }
+
+    @Test
+    void slowFirstByteLowersTheRouteLimit() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = concurrencyLimited(meterRegistry);
+        GatewayFilterChain slow = exchange -> Mono.delay(Duration.ofMillis(200))
+                .then(Mono.defer(() -> exchange.getResponse().writeWith(Mono.just(line("late")))));
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/customers")), slow).block();
+
+        assertEquals(90, routeLimit(meterRegistry));
+    }
+
+    @Test
+    void unresolvedRemoteAddressIsKeyedByItsHostName() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/customers")
+                .remoteAddress(InetSocketAddress.createUnresolved("client.internal", 443)));
+
+        assertEquals("ip:client.internal", filter(true, Set.of()).resolveClientKey(exchange));
+    }
+
+    @Test
+    void rejectsWithRetryAfterOnceTheBucketIsEmpty() {
+        AdmissionControlFilter filter = filter(true, Set.of());
+
+        for (int i = 0; i < 2; i++) {
+            assertNull(send(filter, null));
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/customers"));
+        filter.filter(exchange, chain).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertEquals("2", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void admitsEveryoneWhenRateLimitingIsOff() {
+        AdmissionControlFilter filter = filter(false, Set.of());
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(send(filter, "customer-service"));
+        }
+    }
+
+    @Test
+    void exemptClientsBypassTheirBucket() {
+        AdmissionControlFilter filter = filter(true, Set.of("customer-service"));
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(send(filter, "customer-service"));
+        }
+        assertNull(send(filter, "other-client"));
+        assertNull(send(filter, "other-client"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(filter, "other-client"));
+    }
+}
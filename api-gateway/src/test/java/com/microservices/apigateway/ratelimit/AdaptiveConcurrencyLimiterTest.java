@@ -0,0 +1,44 @@
+package com.microservices.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void backsOffOnSlowResponsesAndRecovers() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, 0.5, 100);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(500), false);
+        assertEquals(5, limiter.getLimit());
+        assertFalse(limiter.tryAcquire());
+
+        // Fast responses while the route is busy raise the limit again
+        for (int i = 0; i < 9; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+        }
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getLimit() > 5);
+    }
+
+    @Test
+    void failuresBackOffButNeverBelowTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 20, 0.5, 1000);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+}
@@ -0,0 +1,44 @@
+package com.microservices.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientRateLimiterTest {
+
+    @Test
+    void admitsBurstThenAsksClientToWait() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 5, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("alice"));
+        }
+        long waitNanos = limiter.tryAcquire("alice");
+        assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.SECONDS.toNanos(1));
+        // Other clients have their own bucket
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(0.001, 100, 100);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("shared") == 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, admitted.get());
+    }
+}
@@ -0,0 +1,144 @@
+package com.microservices.apigateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JwtValidationWebFilterTest {
+
+    private KeyPair keyPair;
+    private MockEnvironment environment;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenVerifier verifier;
+    private JwtValidationWebFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyPair = newKeyPair();
+        environment = new MockEnvironment().withProperty("keycloak.realm.public-key", encode(keyPair));
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new JwtTokenVerifier(environment, meterRegistry, 100, 300);
+        filter = new JwtValidationWebFilter(verifier, ObservationRegistry.NOOP);
+    }
+
+    private static KeyPair newKeyPair() throws Exception {
+        return KeyPairGenerator.getInstance("RSA").generateKeyPair();
+    }
+
+    private static String encode(KeyPair keyPair) {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    private static String token(Key signingKey, String subject, long expiresInMillis) {
+        return Jwts.builder().setSubject(subject)
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(signingKey).compact();
+    }
+
+    // Runs the filter and returns the authentication the rest of the chain sees, if any
+    private Authentication send(MockServerWebExchange exchange) {
+        AtomicReference<Authentication> authentication = new AtomicReference<>();
+        WebFilterChain chain = ignored -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(authentication::set)
+                .then();
+        filter.filter(exchange, chain).block();
+        return authentication.get();
+    }
+
+    private static MockServerWebExchange request(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/customers")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private double cacheHits() {
+        FunctionCounter hits = meterRegistry.find("cache.gets").tags("cache", "jwt.verified", "result", "hit")
+                .functionCounter();
+        return hits != null ? hits.count() : 0;
+    }
+
+    @Test
+    void validTokenBecomesTheAuthenticationAndIsServedFromTheCacheNextTime() {
+        String token = token(keyPair.getPrivate(), "alice", TimeUnit.MINUTES.toMillis(10));
+
+        MockServerWebExchange first = request(token);
+        Authentication authentication = send(first);
+        assertNotNull(authentication);
+        assertEquals("alice", authentication.getName());
+        JwtValidationResult result = first.getAttribute(JwtValidationResult.ATTRIBUTE);
+        assertEquals(JwtValidationResult.Status.VALID, result.status());
+        assertEquals("alice", result.principal());
+        assertEquals(0, cacheHits());
+
+        MockServerWebExchange second = request(token);
+        assertEquals("alice", send(second).getName());
+        assertEquals(JwtValidationResult.Status.VALID,
+                ((JwtValidationResult) second.getAttribute(JwtValidationResult.ATTRIBUTE)).status());
+        assertEquals(1, cacheHits());
+    }
+
+    @Test
+    void expiredTokenLeavesTheRequestAnonymousAndIsNotCached() {
+        String token = token(keyPair.getPrivate(), "alice", -TimeUnit.MINUTES.toMillis(1));
+
+        MockServerWebExchange exchange = request(token);
+        assertNull(send(exchange));
+        assertEquals(JwtValidationResult.Status.EXPIRED,
+                ((JwtValidationResult) exchange.getAttribute(JwtValidationResult.ATTRIBUTE)).status());
+        assertNull(verifier.getVerified(token));
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsInvalid() throws Exception {
+        String token = token(newKeyPair().getPrivate(), "mallory", TimeUnit.MINUTES.toMillis(10));
+
+        MockServerWebExchange exchange = request(token);
+        assertNull(send(exchange));
+        assertEquals(JwtValidationResult.Status.INVALID,
+                ((JwtValidationResult) exchange.getAttribute(JwtValidationResult.ATTRIBUTE)).status());
+        assertNull(verifier.getVerified(token));
+    }
+
+    @Test
+    void picksUpARotatedRealmKeyOnSignatureFailure() throws Exception {
+        KeyPair rotated = newKeyPair();
+        environment.setProperty("keycloak.realm.public-key", encode(rotated));
+
+        MockServerWebExchange exchange = request(token(rotated.getPrivate(), "alice", TimeUnit.MINUTES.toMillis(10)));
+        assertEquals("alice", send(exchange).getName());
+        // Tokens of the old key no longer validate
+        assertEquals(JwtValidationResult.Status.INVALID,
+                verifier.validate(token(keyPair.getPrivate(), "alice", TimeUnit.MINUTES.toMillis(10))).status());
+    }
+
+    @Test
+    void requestsWithoutBearerTokenPassThroughUntouched() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/customers"));
+        assertNull(send(exchange));
+        assertNull(exchange.getAttribute(JwtValidationResult.ATTRIBUTE));
+    }
+}
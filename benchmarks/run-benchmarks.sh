@@ -0,0 +1,16 @@
+#!/bin/sh
+# Builds the services and the JMH jar, runs the benchmarks and writes the JMH JSON results to
+# results/<commit>.json so runs can be compared across commits. No Keycloak, Eureka or Oracle is needed.
+#   ./run-benchmarks.sh                         all benchmarks
+#   ./run-benchmarks.sh JwtValidation -f 1      JMH arguments are passed through (java -jar ... -h)
+#   MVN_ARGS=-o ./run-benchmarks.sh             build from the local Maven repository only
+set -e
+cd "$(dirname "$0")"
+
+for module in log-shipping service-commons customer-service address-service api-gateway; do
+    mvn -B -q $MVN_ARGS -f ../$module/pom.xml install -DskipTests
+done
+mvn -B -q $MVN_ARGS package
+
+mkdir -p results
+java -jar target/benchmarks.jar -rf json -rff "results/$(git rev-parse --short HEAD).json" "$@"
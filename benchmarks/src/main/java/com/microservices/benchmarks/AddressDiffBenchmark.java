@@ -0,0 +1,66 @@
+package com.microservices.benchmarks;
+
+import com.microservices.customerservice.dto.AddressBulkRequestDTO;
+import com.microservices.customerservice.dto.AddressDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The address diff behind {@code CustomerController.handleAddressUpdates}: of the stored addresses,
+ * a fifth is dropped and every other kept one is changed, and a fifth as many new ones are added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddressDiffBenchmark {
+
+    private static final Long CUSTOMER_ID = 1L;
+
+    @Param({"5", "50", "500"})
+    private int addressCount;
+
+    private List<AddressDTO> existing;
+    private List<AddressDTO> updated;
+
+    @Setup
+    public void setUp() {
+        existing = new ArrayList<>(addressCount);
+        updated = new ArrayList<>(addressCount);
+        for (int i = 0; i < addressCount; i++) {
+            AddressDTO stored = new AddressDTO((long) i, "Address " + i, i + " Main Street", "Springfield",
+                    "IL", "62701", CUSTOMER_ID);
+            existing.add(stored);
+            if (i % 5 == 4) {
+                continue;
+            }
+            String street = i % 2 == 0 ? stored.getStreet() : i + " Oak Avenue";
+            updated.add(new AddressDTO(stored.getId(), stored.getAddressName(), street, stored.getCity(),
+                    stored.getState(), stored.getZipCode(), CUSTOMER_ID));
+        }
+        for (int i = 0; i < Math.max(1, addressCount / 5); i++) {
+            updated.add(new AddressDTO(null, "New address " + i, i + " Elm Street", "Springfield", "IL",
+                    "62702", CUSTOMER_ID));
+        }
+    }
+
+    @Benchmark
+    public AddressBulkRequestDTO diff() {
+        return AddressBulkRequestDTO.diff(CUSTOMER_ID, existing, updated);
+    }
+}
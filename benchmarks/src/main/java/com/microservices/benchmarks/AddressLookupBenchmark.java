@@ -0,0 +1,132 @@
+package com.microservices.benchmarks;
+
+import com.microservices.addressservice.config.CacheConfig;
+import com.microservices.addressservice.dto.AddressDTO;
+import com.microservices.addressservice.entity.Address;
+import com.microservices.addressservice.repository.AddressRepository;
+import com.microservices.addressservice.service.AddressService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AddressService lookups against an embedded H2 database created by the service's own Flyway
+ * migrations: single customer straight from the repository, the same lookup through the Caffeine
+ * cache, and the batched IN lookup for a page of customers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Longer warm-up: Hibernate, H2 and the cache take a while to reach steady state
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddressLookupBenchmark {
+
+    private static final int CUSTOMERS = 2_000;
+    private static final int ADDRESSES_PER_CUSTOMER = 5;
+    private static final int PAGE_SIZE = 50;
+
+    private ConfigurableApplicationContext context;
+    private AddressRepository addressRepository;
+    private AddressService addressService;
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class, CacheAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Address.class)
+    @EnableJpaRepositories(basePackageClasses = AddressRepository.class)
+    @Import({AddressService.class, CacheConfig.class})
+    static class EmbeddedAddressStore {
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EmbeddedAddressStore.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Ignore the services' application.properties on the classpath (Oracle, Eureka, Keycloak)
+                        "spring.config.name=benchmark",
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.flyway.locations=classpath:db/migration/{vendor}",
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.jpa.open-in-view=false",
+                        "spring.cache.type=caffeine",
+                        "spring.cache.cache-names=" + AddressService.ADDRESSES_BY_CUSTOMER_CACHE,
+                        "spring.cache.caffeine.spec=maximumSize=" + CUSTOMERS)
+                .run();
+        addressRepository = context.getBean(AddressRepository.class);
+        addressService = context.getBean(AddressService.class);
+        seed(new JdbcTemplate(context.getBean(DataSource.class)));
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = new ArrayList<>(CUSTOMERS * ADDRESSES_PER_CUSTOMER);
+        long id = 1;
+        for (long customerId = 1; customerId <= CUSTOMERS; customerId++) {
+            for (int i = 0; i < ADDRESSES_PER_CUSTOMER; i++) {
+                rows.add(new Object[]{id++, "Address " + i, i + " Main Street", "Springfield", "IL", "62701", customerId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO address (id, address_name, street, city, state, zip_code, customer_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Address> findByCustomerId() {
+        return addressRepository.findByCustomerId(randomCustomerId());
+    }
+
+    @Benchmark
+    public List<AddressDTO> getAddressesByCustomerIdCached() {
+        return addressService.getAddressesByCustomerId(randomCustomerId());
+    }
+
+    @Benchmark
+    public List<Address> getAddressesByCustomerIdsPage() {
+        long first = ThreadLocalRandom.current().nextLong(1, CUSTOMERS - PAGE_SIZE + 2);
+        List<Long> customerIds = new ArrayList<>(PAGE_SIZE);
+        for (long customerId = first; customerId < first + PAGE_SIZE; customerId++) {
+            customerIds.add(customerId);
+        }
+        return addressService.getAddressesByCustomerIds(customerIds);
+    }
+
+    private static long randomCustomerId() {
+        return ThreadLocalRandom.current().nextLong(1, CUSTOMERS + 1);
+    }
+}
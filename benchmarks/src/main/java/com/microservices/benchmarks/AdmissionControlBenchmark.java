@@ -0,0 +1,78 @@
+package com.microservices.benchmarks;
+
+import com.microservices.apigateway.filter.AdmissionControlFilter;
+import com.microservices.apigateway.security.JwtValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the gateway admission filter per request, with rate and concurrency limits on and many
+ * distinct clients, against the same exchange run through a pass-through filter. The downstream
+ * chain is a no-op, so the difference is the filter's own cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AdmissionControlBenchmark {
+
+    private static final int CLIENTS = 1_000;
+
+    private final GatewayFilterChain chain = exchange -> Mono.empty();
+    private final GlobalFilter passThrough = (exchange, next) -> next.filter(exchange);
+    private AdmissionControlFilter admissionControl;
+    private JwtValidationResult[] validations;
+
+    @Setup
+    public void setUp() {
+        // Limits far above the offered load, so every request takes the admitted path
+        admissionControl = new AdmissionControlFilter(new SimpleMeterRegistry(), true, 1_000_000, 1_000_000,
+                100_000, Set.of(), true);
+        validations = new JwtValidationResult[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            Jwt jwt = Jwt.withTokenValue("token-" + i).header("alg", "RS256").subject("user-" + i).build();
+            validations[i] = new JwtValidationResult(JwtValidationResult.Status.VALID, jwt);
+        }
+    }
+
+    @Benchmark
+    public MockServerWebExchange passThrough() {
+        return run(passThrough);
+    }
+
+    @Benchmark
+    public MockServerWebExchange admissionControl() {
+        return run(admissionControl);
+    }
+
+    private MockServerWebExchange run(GlobalFilter filter) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/customers"));
+        exchange.getAttributes().put(JwtValidationResult.ATTRIBUTE,
+                validations[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
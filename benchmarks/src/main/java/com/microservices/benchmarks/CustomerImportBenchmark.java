@@ -0,0 +1,124 @@
+package com.microservices.benchmarks;
+
+import com.microservices.customerservice.dto.CustomerImportResultDTO;
+import com.microservices.customerservice.entity.Customer;
+import com.microservices.customerservice.repository.CustomerRepository;
+import com.microservices.customerservice.service.CustomerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer write paths against an embedded H2 database, per row: one save and one transaction per
+ * customer (as POST /customers does) versus the batched POST /customers/import path. The
+ * customer-service migrations are not on this classpath, so Hibernate creates the schema with the
+ * same pooled sequence and JDBC batch settings as the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(CustomerImportBenchmark.ROWS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerImportBenchmark {
+
+    static final int ROWS = 500;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private CustomerService customerService;
+    // Keeps emails unique across invocations within an iteration
+    private long invocation;
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Customer.class)
+    @EnableJpaRepositories(basePackageClasses = CustomerRepository.class)
+    @Import(CustomerService.class)
+    static class EmbeddedCustomerStore {
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EmbeddedCustomerStore.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Ignore the services' application.properties on the classpath (Oracle, Eureka, Keycloak)
+                        "spring.config.name=benchmark",
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:customers;DB_CLOSE_DELAY=-1",
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "customer-import.batch-size=500")
+                .run();
+        customerRepository = context.getBean(CustomerRepository.class);
+        customerService = context.getBean(CustomerService.class);
+    }
+
+    // Start every iteration from an empty table so the unique email index does not keep growing
+    @Setup(Level.Iteration)
+    public void clearCustomers() {
+        customerRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void perRowInserts(Blackhole blackhole) {
+        for (Customer customer : customers("row")) {
+            blackhole.consume(customerService.addCustomer(customer));
+        }
+    }
+
+    @Benchmark
+    public CustomerImportResultDTO batchedImport() {
+        return customerService.importCustomers(customers("import"));
+    }
+
+    private List<Customer> customers(String prefix) {
+        long batch = invocation++;
+        List<Customer> customers = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Customer customer = new Customer();
+            customer.setName(prefix + " customer " + i);
+            customer.setEmail(prefix + batch + "-" + i + "@example.com");
+            customer.setPhoneNumber("0555" + String.format("%07d", i));
+            customers.add(customer);
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,69 @@
+package com.microservices.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.customerservice.dto.AddressDTO;
+import com.microservices.customerservice.entity.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of a customer with its addresses, using an ObjectMapper configured the way
+ * Spring MVC configures it for the customer-service controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int addressCount;
+
+    private ObjectMapper objectMapper;
+    private Customer customer;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customer = customerWithAddresses(1L, addressCount);
+        json = objectMapper.writeValueAsBytes(customer);
+    }
+
+    static Customer customerWithAddresses(Long id, int addressCount) {
+        List<AddressDTO> addresses = new ArrayList<>(addressCount);
+        for (int i = 0; i < addressCount; i++) {
+            addresses.add(new AddressDTO((long) i, "Address " + i, i + " Main Street", "Springfield",
+                    "IL", "62701", id));
+        }
+        return new Customer(id, "Customer " + id, "customer" + id + "@example.com", "5551234567",
+                addresses, false);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public Customer deserialize() throws IOException {
+        return objectMapper.readValue(json, Customer.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.microservices.benchmarks;
+
+import com.microservices.apigateway.security.JwtTokenVerifier;
+import com.microservices.apigateway.security.JwtValidationResult;
+import com.microservices.apigateway.security.JwtValidationWebFilter;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway bearer-token validation: with a key parsed for the request (cold key), with the pre-built
+ * parser (signature check), from the verified-token cache, and the whole security web filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private MockEnvironment environment;
+    private JwtTokenVerifier verifier;
+    private JwtValidationWebFilter webFilter;
+    private String token;
+    private final WebFilterChain chain = exchange -> Mono.empty();
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        environment = new MockEnvironment().withProperty("keycloak.realm.public-key",
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        verifier = new JwtTokenVerifier(environment, new SimpleMeterRegistry(), 10_000, 300);
+        webFilter = new JwtValidationWebFilter(verifier, ObservationRegistry.NOOP);
+        token = Jwts.builder().setSubject("benchmark-user").claim("scope", "openid profile")
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(keyPair.getPrivate()).compact();
+        if (!verifier.validate(token).isValid()) {
+            throw new IllegalStateException("Benchmark token does not validate");
+        }
+    }
+
+    @Benchmark
+    public JwtValidationResult coldKey() {
+        return new JwtTokenVerifier(environment, new SimpleMeterRegistry(), 1, 1).validate(token);
+    }
+
+    @Benchmark
+    public JwtValidationResult prebuiltKey() {
+        return verifier.validate(token);
+    }
+
+    @Benchmark
+    public JwtValidationResult cachedToken() {
+        return verifier.getVerified(token);
+    }
+
+    @Benchmark
+    public Object securityWebFilterCachedToken() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/customers")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        webFilter.filter(exchange, chain).block();
+        return exchange.getAttribute(JwtValidationResult.ATTRIBUTE);
+    }
+}
@@ -1,15 +1,120 @@
 package com.microservices.customerservice.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import com.microservices.customerservice.security.ServiceTokenInterceptor;
+import com.microservices.customerservice.service.AddressEnrichmentExecutor;
+import com.microservices.customerservice.security.ServiceTokenProvider;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.OptionalLong;
+
 @Configuration
 public class AppConfig {
+
+    @Value("${http-client.max-connections-total:200}")
+    private int maxConnectionsTotal;
+
+    @Value("${http-client.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http-client.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+
+    @Value("${http-client.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${http-client.connection-request-timeout-ms:500}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${http-client.idle-eviction-seconds:30}")
+    private long idleEvictionSeconds;
+
+    @Value("${http-client.connection-ttl-seconds:300}")
+    private long connectionTtlSeconds;
+
+    // Keep-alive connection pool shared by every inter-service call
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofSeconds(connectionTtlSeconds))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig(readTimeoutMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictionSeconds))
+                .build();
+    }
+
+    private RequestConfig requestConfig(long responseTimeoutMs) {
+        return RequestConfig.custom()
+                // How long a caller may wait for a free pooled connection
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(
+                        Math.min(connectionRequestTimeoutMs, responseTimeoutMs)))
+                .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                .build();
+    }
+
+    // Calls on the address enrichment executor wait no longer than their deadline has left, so a
+    // call that timed out does not keep its pool thread and connection until the full read timeout.
+    // Other calls get the client's default config (a null context).
+    private HttpContext enrichmentCallContext() {
+        OptionalLong remainingMs = AddressEnrichmentExecutor.remainingMillis();
+        if (remainingMs.isEmpty()) {
+            return null;
+        }
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig(Math.max(Math.min(remainingMs.getAsLong(), readTimeoutMs), 1)));
+        return context;
+    }
+
+    // Publishes httpcomponents.httpclient.pool.* gauges through the actuator metrics endpoint
+    @Bean
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(httpConnectionManager, "inter-service");
+    }
+
+    // Built from Boot's RestTemplateBuilder so every call is observed: a client span per request and
+    // the W3C traceparent header on the outgoing request. Calls authenticate with the service token.
     @Bean
     @LoadBalanced  // Enable load balancing with Eureka
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient httpClient,
+                                     ServiceTokenProvider serviceTokenProvider) {
+        return restTemplateBuilder
+                .requestFactory(() -> {
+                    HttpComponentsClientHttpRequestFactory requestFactory =
+                            new HttpComponentsClientHttpRequestFactory(httpClient);
+                    requestFactory.setHttpContextFactory((method, uri) -> enrichmentCallContext());
+                    return requestFactory;
+                })
+                .additionalInterceptors(new ServiceTokenInterceptor(serviceTokenProvider))
+                .build();
     }
 }
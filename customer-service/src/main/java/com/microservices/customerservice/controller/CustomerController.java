@@ -1,24 +1,40 @@
 package com.microservices.customerservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.commons.util.Constraints;
+import com.microservices.commons.util.ETags;
+import com.microservices.customerservice.dto.AddressBulkRequestDTO;
 import com.microservices.customerservice.dto.AddressDTO;
+import com.microservices.customerservice.dto.CustomerImportResultDTO;
 import com.microservices.customerservice.entity.Customer;
+import com.microservices.customerservice.service.AddressEnrichmentExecutor;
+import com.microservices.customerservice.service.AddressServiceGuard;
 import com.microservices.customerservice.service.CustomerService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.*;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,64 +42,179 @@ import java.util.stream.Collectors;
 @Validated
 public class CustomerController {
     private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final CustomerService customerService;
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final AddressEnrichmentExecutor addressEnrichmentExecutor;
+    private final AddressServiceGuard addressServiceGuard;
 
+    // http://ADDRESS-SERVICE (resolved through Eureka by the load-balanced RestTemplate) or the gateway URL.
+    // Calls carry the service's client-credentials token (ServiceTokenInterceptor), not the user's.
+    @Value("${address-service.url}")
+    private String addressServiceUrl;
 
-    @Value("${keycloak.token-endpoint}")
-    private String tokenEndpoint;
+    @Value("${address-service.batch-size:500}")
+    private int addressBatchSize;
 
-    @Value("${keycloak.client-id}")
-    private String clientId;
-
-    @Value("${keycloak.client-secret-as}")
-    private String clientSecret;
-
-    @Value("${api-gateway.service.url}")
-    private String apiGatewayServiceUrl;
-
-    public CustomerController(CustomerService customerService, RestTemplate restTemplate) {
+    public CustomerController(CustomerService customerService, RestTemplate restTemplate, ObjectMapper objectMapper,
+                              AddressEnrichmentExecutor addressEnrichmentExecutor,
+                              AddressServiceGuard addressServiceGuard) {
         this.customerService = customerService;
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.addressEnrichmentExecutor = addressEnrichmentExecutor;
+        this.addressServiceGuard = addressServiceGuard;
     }
 
+    // GET http://localhost:8082/customers                       -> all customers
+    // GET http://localhost:8082/customers?page=0&size=50          -> offset page ordered by id
+    // GET http://localhost:8082/customers?after=<lastId>&size=50  -> keyset page, next cursor in X-Next-Cursor
     @GetMapping()
-    public List<Customer> getCustomers() {
-        List<Customer> customers = customerService.getAllCustomers();
-        customers.forEach(customer -> {
-            List<AddressDTO> addresses = fetchCustomerAddresses(customer.getId());
-            customer.setAddresses(addresses);
-        });
-        return customers;
+    public ResponseEntity<List<Customer>> getCustomers(@RequestParam(required = false) Integer page,
+                                                       @RequestParam(required = false) Long after,
+                                                       @RequestParam(defaultValue = "50") int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<Customer> customers;
+        if (after != null) {
+            customers = customerService.getCustomersAfter(after, pageSize);
+        } else if (page != null) {
+            customers = customerService.getCustomersPage(Math.max(page, 0), pageSize);
+        } else {
+            customers = customerService.getAllCustomers();
+        }
+        attachCustomerAddresses(customers);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (after != null && customers.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(customers.get(customers.size() - 1).getId()));
+        }
+        return response.body(customers);
+    }
+
+    // GET http://localhost:8082/customers with "Accept: application/x-ndjson"
+    // Streams one customer per line, reading keyset pages of addressBatchSize. Each page is read in its
+    // own short transaction, so no connection is held while addresses are fetched and lines written.
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCustomers() {
+        StreamingResponseBody body = outputStream -> {
+            long after = 0L;
+            List<Customer> page;
+            do {
+                page = customerService.getCustomersAfter(after, addressBatchSize);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                    writeNdjson(page, outputStream);
+                }
+            } while (page.size() == addressBatchSize);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeNdjson(List<Customer> customers, OutputStream outputStream) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        attachCustomerAddresses(customers);
+        try {
+            for (Customer customer : customers) {
+                outputStream.write(objectMapper.writeValueAsBytes(customer));
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Fetches addresses with one batched call per page of customers instead of one call per customer,
+    // then joins them in memory by customerId.
+    private void attachCustomerAddresses(List<Customer> customers) {
+        for (int from = 0; from < customers.size(); from += addressBatchSize) {
+            List<Customer> page = customers.subList(from, Math.min(from + addressBatchSize, customers.size()));
+            List<Long> customerIds = page.stream()
+                    .map(Customer::getId)
+                    .collect(Collectors.toList());
+
+            Map<Long, List<AddressDTO>> addressesByCustomer;
+            try {
+                addressesByCustomer = fetchAddressesForCustomers(customerIds);
+            } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed e) {
+                // Batch endpoint not deployed yet (rolling deploy): per-customer calls still work
+                logger.warn("Batch address lookup unavailable, falling back to per-customer calls: {}", e.getMessage());
+                attachAddressesConcurrently(page);
+                continue;
+            } catch (CallNotPermittedException | BulkheadFullException | RestClientException e) {
+                // Breaker open, too many calls in flight, or address-service failing: answer right away
+                // without addresses rather than fanning out one call per customer to a struggling service
+                logger.warn("Address lookup failed, returning customers without addresses: {}", e.getMessage());
+                page.forEach(customer -> {
+                    customer.setAddresses(new ArrayList<>());
+                    customer.setAddressesUnavailable(true);
+                });
+                continue;
+            }
+            page.forEach(customer -> customer.setAddresses(
+                    addressesByCustomer.getOrDefault(customer.getId(), new ArrayList<>())));
+        }
+    }
+
+    // Issues one address call per customer on the enrichment executor and waits for all of them.
+    // A customer whose call fails or times out is returned with addressesUnavailable set.
+    private void attachAddressesConcurrently(List<Customer> customers) {
+        CompletableFuture<?>[] calls = customers.stream()
+                .map(customer -> addressEnrichmentExecutor.submit(() -> fetchCustomerAddresses(customer.getId()))
+                        .handle((addresses, ex) -> {
+                            if (ex != null) {
+                                logger.warn("Addresses unavailable for customer {}: {}", customer.getId(), ex.toString());
+                                customer.setAddresses(new ArrayList<>());
+                                customer.setAddressesUnavailable(true);
+                            } else {
+                                customer.setAddresses(addresses);
+                            }
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(calls).join();
+    }
+
+    private Map<Long, List<AddressDTO>> fetchAddressesForCustomers(List<Long> customerIds) {
+        String tempServiceUrl = addressServiceUrl + "/addresses/customers";
+
+        HttpEntity<List<Long>> entity = new HttpEntity<>(customerIds);
+        // Read-only lookup, so it is safe to retry
+        ResponseEntity<List<AddressDTO>> response = addressServiceGuard.call(() -> restTemplate.exchange(
+                tempServiceUrl,
+                HttpMethod.POST,
+                entity,
+                new ParameterizedTypeReference<List<AddressDTO>>() {}
+        ));
+
+        List<AddressDTO> addresses = response.getBody() != null ? response.getBody() : List.of();
+        return addresses.stream()
+                .collect(Collectors.groupingBy(AddressDTO::getCustomerId));
     }
 
     private List<AddressDTO> fetchCustomerAddresses(Long customerId) {
         //logger.info("fetchCustomerAddress method starts in CustomerController");
-        String tempServiceUrl = apiGatewayServiceUrl + "/addresses/customer/" + customerId;
+        // URI templates keep the id out of the http.client.requests uri tag (one timer per call type)
+        String tempServiceUrl = addressServiceUrl + "/addresses/customer/{customerId}";
         //logger.info("The address-service url related with customerId is: " + tempServiceUrl);
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + extractBearerToken()); // Add token to headers
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-        ResponseEntity<List<AddressDTO>> response = restTemplate.exchange(
+        ResponseEntity<List<AddressDTO>> response = addressServiceGuard.call(() -> restTemplate.exchange(
                 tempServiceUrl,
                 HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<>() {}
-        );
+                HttpEntity.EMPTY,
+                new ParameterizedTypeReference<List<AddressDTO>>() {},
+                customerId
+        ));
 
         return response.getBody();
     }
 
-    private String extractBearerToken() {
-        var authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication instanceof JwtAuthenticationToken jwtToken) {
-            return jwtToken.getToken().getTokenValue();
-        }
-        return null;
-    }
-
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteCustomerByCustomerId (@PathVariable Long id) {
         // Check if customer exists
@@ -106,60 +237,137 @@ public class CustomerController {
     }
 
     // GET http://localhost:8082/customers/<customerID>
+    // Answers If-None-Match with 304 and no body when neither the customer nor its addresses changed
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCustomerById(@PathVariable Long id) {
+    public ResponseEntity<?> getCustomerById(@PathVariable Long id, WebRequest webRequest) {
         Customer customer = customerService.getCustomerById(id);
         if (customer == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Customer not found!");
         }
 
         // Fetch addresses from address-service
-        List<AddressDTO> addresses = fetchCustomerAddresses(id);
-        customer.setAddresses(addresses);
+        attachAddressesConcurrently(List.of(customer));
 
-        return ResponseEntity.ok(customer);
+        // A partial response must not be cached or validated against
+        if (customer.isAddressesUnavailable()) {
+            return ResponseEntity.ok(customer);
+        }
+        String etag = eTagOf(customer);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(customer);
+    }
+
+    private String eTagOf(Customer customer) {
+        ETags.Builder etag = ETags.builder()
+                .add(customer.getId())
+                .add(customer.getName())
+                .add(customer.getEmail())
+                .add(customer.getPhoneNumber());
+        List<AddressDTO> addresses = customer.getAddresses() != null ? customer.getAddresses() : List.of();
+        for (AddressDTO address : addresses) {
+            etag.add(address.getId())
+                    .add(address.getAddressName())
+                    .add(address.getStreet())
+                    .add(address.getCity())
+                    .add(address.getState())
+                    .add(address.getZipCode())
+                    .add(address.getCustomerId());
+        }
+        return etag.build();
     }
 
     @GetMapping("/{customerId}/addresses")
     public List<AddressDTO> getCustomerAddresses(@PathVariable Long customerId) {
-        String tempServiceUrl = apiGatewayServiceUrl + "/customer/" + customerId;
-        return restTemplate.getForObject(tempServiceUrl, List.class);
+        return fetchCustomerAddresses(customerId);
     }
 
-    // 1. Check if the email exist, if not continue
-    // 2. Save the customer first to generate a customerID
-    // 3. If addresses are provided, send them to address-service with the generated customerID
-    // 4. Return the saved customer data.
+    // 1. Save the customer first to generate a customerID; a duplicate email is rejected by the
+    //    unique constraint, so there is no separate existence check and no race between the two
+    // 2. If addresses are provided, send them to address-service with the generated customerID; if
+    //    they are rejected or cannot be saved, the customer is deleted again and the error returned
+    // 3. Return the saved customer data.
     // POST http://localhost:8082/customers with related Body
     @PostMapping
     public ResponseEntity<?> createCustomer(@Valid @RequestBody Customer customer) {
-        if (customerService.existsByEmail(customer.getEmail())) {
+        // Save customer first and get the generated ID
+        Customer savedCustomer;
+        try {
+            savedCustomer = customerService.addCustomer(customer);
+        } catch (DataIntegrityViolationException e) {
+            // Only the email constraint means a duplicate; other violations are real errors
+            if (!Constraints.isViolationOf(e, "uk_customer_email")) {
+                throw e;
+            }
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already exists.");
         }
 
-        // Save customer first and get the generated ID
-        Customer savedCustomer = customerService.addCustomer(customer);
-
-        // If customer has addresses, send them to address-service
+        // If customer has addresses, send them to address-service in one bulk call
         if (customer.getAddresses() != null && !customer.getAddresses().isEmpty()) {
-            for (AddressDTO address : customer.getAddresses()) {
-                address.setCustomerId(savedCustomer.getId());  // Set customer ID to each address
-                sendAddressToAddressService(address);
+            try {
+                sendAddressesToAddressService(savedCustomer.getId(),
+                        AddressBulkRequestDTO.forCreate(savedCustomer.getId(), customer.getAddresses()));
+            } catch (RuntimeException e) {
+                // Undo the customer so the whole request can be corrected and sent again
+                customerService.deleteCustomerById(savedCustomer.getId());
+                return addressFailure(savedCustomer.getId(), e);
             }
         }
         return ResponseEntity.status(HttpStatus.CREATED).body(savedCustomer);
     }
 
-    private void sendAddressToAddressService(AddressDTO address) {
-        String tempUrl = apiGatewayServiceUrl + "/addresses";
-        try {
-            restTemplate.postForObject(tempUrl, address, AddressDTO.class);
-            System.out.println("Address sent successfully: " + address);
-        } catch (HttpServerErrorException e) {
-            System.err.println("Error from address-service: " + e.getResponseBodyAsString());
-        } catch (Exception e) {
-            System.err.println("Unexpected error while sending address: " + e.getMessage());
+    // POST http://localhost:8082/customers/import with a JSON array of customers (addresses optional)
+    // Bulk import for nightly loads: customers are inserted in JDBC batches, then each customer's
+    // addresses are sent with one bulk call. Customers whose addresses could not be saved are listed in
+    // the result; the customers themselves stay imported.
+    @PostMapping("/import")
+    public ResponseEntity<CustomerImportResultDTO> importCustomers(@RequestBody List<@Valid Customer> customers) {
+        CustomerImportResultDTO result = customerService.importCustomers(customers);
+        for (Customer customer : customers) {
+            if (customer.getId() != null && customer.getAddresses() != null && !customer.getAddresses().isEmpty()) {
+                try {
+                    sendAddressesToAddressService(customer.getId(),
+                            AddressBulkRequestDTO.forCreate(customer.getId(), customer.getAddresses()));
+                } catch (RuntimeException e) {
+                    logger.warn("Addresses of imported customer {} not saved: {}", customer.getId(), e.toString());
+                    result.getAddressesFailed().add(customer.getId());
+                }
+            }
         }
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    // Throws when address-service rejects the changes (HttpClientErrorException, e.g. 409 for a clashing
+    // address name), fails, or is not called because the breaker is open or the bulkhead full
+    private void sendAddressesToAddressService(Long customerId, AddressBulkRequestDTO request) {
+        String tempUrl = addressServiceUrl + "/addresses/customer/{customerId}/bulk";
+        // Creates addresses, so never retried
+        addressServiceGuard.callOnce(() -> restTemplate.exchange(
+                tempUrl, HttpMethod.POST, new HttpEntity<>(request), AddressDTO[].class, customerId));
+        logger.debug("Addresses sent successfully for customer {}", customerId);
+    }
+
+    // Answer for a failed address change: address-service's own 4xx is passed on, a rejected call is
+    // 503 and any other failure 502
+    private ResponseEntity<String> addressFailure(Long customerId, RuntimeException e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            logger.info("address-service rejected the addresses of customer {}: {} {}", customerId,
+                    clientError.getStatusCode(), clientError.getResponseBodyAsString());
+            return ResponseEntity.status(clientError.getStatusCode())
+                    .body("Addresses rejected by address-service: " + clientError.getResponseBodyAsString());
+        }
+        if (e instanceof CallNotPermittedException || e instanceof BulkheadFullException) {
+            logger.warn("Address change for customer {} not attempted: {}", customerId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Addresses could not be saved: address-service is unavailable.");
+        }
+        logger.error("Address change for customer {} failed: {}", customerId, e.toString());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body("Addresses could not be saved: address-service failed.");
     }
 
     // POST http://localhost:8082/customers/<customerID> with related body
@@ -182,9 +390,13 @@ public class CustomerController {
         // Save the updated customer
         Customer updatedCustomer = customerService.updateCustomer(existingCustomer);
 
-        // Step 3: Update addresses
+        // Step 3: Update addresses; the customer details above stay saved if this fails
         if (customerRequest.getAddresses() != null) {
-            handleAddressUpdates(id, customerRequest.getAddresses());
+            try {
+                handleAddressUpdates(id, customerRequest.getAddresses());
+            } catch (RuntimeException e) {
+                return addressFailure(id, e);
+            }
         }
 
         return ResponseEntity.ok(updatedCustomer);
@@ -192,65 +404,29 @@ public class CustomerController {
 
     private void handleAddressUpdates(Long customerId, List<AddressDTO> updatedAddresses) {
         // Fetch existing addresses for the customer from address-service
-        String url = apiGatewayServiceUrl + "/customer/" + customerId;
-        ResponseEntity<AddressDTO[]> response = restTemplate.getForEntity(url, AddressDTO[].class);
-        List<AddressDTO> existingAddresses = Arrays.asList(response.getBody());
-
-        // Handle deletions, additions, and updates
-        deleteRemovedAddresses(existingAddresses, updatedAddresses);
-        addNewAddresses(customerId, updatedAddresses, existingAddresses);
-        updateModifiedAddresses(updatedAddresses, existingAddresses);
-    }
-
-    private void deleteRemovedAddresses(List<AddressDTO> existingAddresses, List<AddressDTO> updatedAddresses) {
-        List<Long> updatedIds = updatedAddresses.stream()
-                .map(AddressDTO::getId)
-                .collect(Collectors.toList());
-
-        for (AddressDTO existingAddress : existingAddresses) {
-            if (!updatedIds.contains(existingAddress.getId())) {
-                String deleteUrl = apiGatewayServiceUrl + "/" + existingAddress.getId();
-                restTemplate.delete(deleteUrl);
-            }
-        }
-    }
-
-    private void addNewAddresses(Long customerId, List<AddressDTO> updatedAddresses, List<AddressDTO> existingAddresses) {
-        List<String> existingAddressNames = existingAddresses.stream()
-                .map(AddressDTO::getAddressName)
-                .collect(Collectors.toList());
-
-        for (AddressDTO updatedAddress : updatedAddresses) {
-            if (updatedAddress.getId() == null && !existingAddressNames.contains(updatedAddress.getAddressName())) {
-                updatedAddress.setCustomerId(customerId);
-                restTemplate.postForObject(apiGatewayServiceUrl, updatedAddress, AddressDTO.class);
-            }
-        }
-    }
-
-    private void updateModifiedAddresses(List<AddressDTO> updatedAddresses, List<AddressDTO> existingAddresses) {
-        for (AddressDTO updatedAddress : updatedAddresses) {
-            for (AddressDTO existingAddress : existingAddresses) {
-                if (updatedAddress.getId() != null &&
-                        updatedAddress.getId().equals(existingAddress.getId()) &&
-                        !updatedAddress.equals(existingAddress)) {
-                    String updateUrl = apiGatewayServiceUrl + "/" + existingAddress.getId();
-                    restTemplate.put(updateUrl, updatedAddress);
-                }
-            }
+        String url = addressServiceUrl + "/addresses/customer/{customerId}";
+        ResponseEntity<AddressDTO[]> response = addressServiceGuard.call(() -> restTemplate.exchange(
+                url, HttpMethod.GET, HttpEntity.EMPTY, AddressDTO[].class, customerId));
+        List<AddressDTO> existingAddresses = response.getBody() != null ? Arrays.asList(response.getBody()) : List.of();
+
+        // Handle deletions, additions, and updates with a single bulk call
+        AddressBulkRequestDTO request = AddressBulkRequestDTO.diff(customerId, existingAddresses, updatedAddresses);
+        if (!request.isEmpty()) {
+            sendAddressesToAddressService(customerId, request);
         }
     }
 
     private boolean deleteCustomerAddresses(Long customerId) {
-        String tempURL = apiGatewayServiceUrl + "/addresses/customer/" + customerId;
+        String tempURL = addressServiceUrl + "/addresses/customer/{customerId}";
 
         try {
-            ResponseEntity<Void> response = restTemplate.exchange(
+            ResponseEntity<Void> response = addressServiceGuard.call(() -> restTemplate.exchange(
                     tempURL,  // URL
                     HttpMethod.DELETE,  // HTTP Method
-                    null,               // requestEntity
-                    Void.class          // ResponseType
-            );
+                    HttpEntity.EMPTY,   // requestEntity
+                    Void.class,         // ResponseType
+                    customerId
+            ));
             return true; // Addresses deleted successfully
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
@@ -0,0 +1,75 @@
+package com.microservices.customerservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// All address mutations for one customer, sent to address-service in a single bulk call
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddressBulkRequestDTO {
+    private List<AddressDTO> create = new ArrayList<>();
+    private List<AddressDTO> update = new ArrayList<>();
+    private List<Long> delete = new ArrayList<>();
+
+    public static AddressBulkRequestDTO forCreate(Long customerId, List<AddressDTO> addresses) {
+        AddressBulkRequestDTO request = new AddressBulkRequestDTO();
+        for (AddressDTO address : addresses) {
+            address.setCustomerId(customerId);  // Set customer ID to each address
+            request.getCreate().add(address);
+        }
+        return request;
+    }
+
+    // Diffs the requested addresses against the stored ones:
+    // - stored addresses whose id is not requested anymore are deleted
+    // - requested addresses without id and with a new name are created
+    // - requested addresses with a known id whose content changed are updated
+    public static AddressBulkRequestDTO diff(Long customerId, List<AddressDTO> existingAddresses,
+                                             List<AddressDTO> updatedAddresses) {
+        AddressBulkRequestDTO request = new AddressBulkRequestDTO();
+
+        Set<Long> updatedIds = new HashSet<>();
+        for (AddressDTO updatedAddress : updatedAddresses) {
+            if (updatedAddress.getId() != null) {
+                updatedIds.add(updatedAddress.getId());
+            }
+        }
+        Set<String> existingAddressNames = new HashSet<>();
+        for (AddressDTO existingAddress : existingAddresses) {
+            existingAddressNames.add(existingAddress.getAddressName());
+            if (!updatedIds.contains(existingAddress.getId())) {
+                request.getDelete().add(existingAddress.getId());
+            }
+        }
+
+        for (AddressDTO updatedAddress : updatedAddresses) {
+            updatedAddress.setCustomerId(customerId);
+            if (updatedAddress.getId() == null) {
+                if (!existingAddressNames.contains(updatedAddress.getAddressName())) {
+                    request.getCreate().add(updatedAddress);
+                }
+            } else {
+                for (AddressDTO existingAddress : existingAddresses) {
+                    if (Objects.equals(updatedAddress.getId(), existingAddress.getId())
+                            && !updatedAddress.equals(existingAddress)) {
+                        request.getUpdate().add(updatedAddress);
+                        break;
+                    }
+                }
+            }
+        }
+        return request;
+    }
+
+    public boolean isEmpty() {
+        return create.isEmpty() && update.isEmpty() && delete.isEmpty();
+    }
+}
@@ -0,0 +1,17 @@
+package com.microservices.customerservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportResultDTO {
+    private int imported;
+    private List<String> skippedEmails = new ArrayList<>();  // Already registered or duplicated in the request
+    private List<Long> addressesFailed = new ArrayList<>();  // Imported customers whose addresses were not saved
+}
@@ -1,5 +1,7 @@
 package com.microservices.customerservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.microservices.customerservice.dto.AddressDTO;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -19,7 +21,9 @@ import java.util.List;
 public class Customer {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
-    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 1)
+    // Pooled optimizer: one nextval per 50 inserts. The database sequence must use INCREMENT BY 50
+    // (created by the Flyway migrations in db/migration); Hibernate refuses to start if it does not match.
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name cannot be empty")
@@ -38,4 +42,10 @@ public class Customer {
 
     @Transient
     private List<AddressDTO> addresses;  // Add DTO reference to communicate with address-service
+
+    // Set when address-service could not be reached in time; the customer is returned without addresses
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean addressesUnavailable;
 }
@@ -1,9 +1,24 @@
 package com.microservices.customerservice.repository;
 
 import com.microservices.customerservice.entity.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
-    boolean existsByEmail(String email);
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    // Offset pagination without the extra count query a Page would need
+    Slice<Customer> findAllBy(Pageable pageable);
+
+    // Keyset (seek) pagination on the sequence-generated id
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
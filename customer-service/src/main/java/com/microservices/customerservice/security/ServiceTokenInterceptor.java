@@ -0,0 +1,28 @@
+package com.microservices.customerservice.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+// Adds the service's client-credentials token to outgoing calls that carry no Authorization header
+public class ServiceTokenInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ServiceTokenProvider serviceTokenProvider;
+
+    public ServiceTokenInterceptor(ServiceTokenProvider serviceTokenProvider) {
+        this.serviceTokenProvider = serviceTokenProvider;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            request.getHeaders().setBearerAuth(serviceTokenProvider.getAccessToken());
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,190 @@
+package com.microservices.customerservice.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Client-credentials access token customer-service uses to call address-service. The token is fetched
+ * at startup and renewed in the background shortly before it expires, so callers normally just read
+ * the cached value. Only when there is no unexpired token does a caller wait, and concurrent callers
+ * then share a single request to Keycloak, for at most the client's connect and read timeouts.
+ * Failed renewals are retried after a short delay, and renewals are never scheduled closer together
+ * than the minimum refresh delay, even for tokens that are short-lived or come without expires_in.
+ */
+@Component
+public class ServiceTokenProvider {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenProvider.class);
+
+    // Plain client: the token endpoint is a real host, not a Eureka service id
+    private final RestTemplate keycloakClient;
+    private final String tokenEndpoint;
+    private final String clientId;
+    private final String clientSecret;
+    private final Duration refreshSkew;
+    private final Duration retryDelay;
+    private final Duration minRefreshDelay;
+    private final Duration defaultLifetime;
+    private final Duration fetchTimeout;
+    private final ScheduledExecutorService refresher;
+
+    private volatile CachedToken token;
+    // Guarded by this
+    private CompletableFuture<CachedToken> inFlight;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public ServiceTokenProvider(RestTemplateBuilder restTemplateBuilder,
+                                @Value("${keycloak.token-endpoint}") String tokenEndpoint,
+                                @Value("${keycloak.client-id}") String clientId,
+                                @Value("${keycloak.client-secret-as}") String clientSecret,
+                                @Value("${service-auth.refresh-skew-seconds:30}") long refreshSkewSeconds,
+                                @Value("${service-auth.retry-delay-seconds:5}") long retryDelaySeconds,
+                                @Value("${service-auth.min-refresh-delay-ms:5000}") long minRefreshDelayMs,
+                                @Value("${service-auth.default-lifetime-seconds:60}") long defaultLifetimeSeconds,
+                                @Value("${service-auth.connect-timeout-ms:1000}") long connectTimeoutMs,
+                                @Value("${service-auth.read-timeout-ms:3000}") long readTimeoutMs) {
+        this.keycloakClient = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                .build();
+        this.tokenEndpoint = tokenEndpoint;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.refreshSkew = Duration.ofSeconds(refreshSkewSeconds);
+        this.retryDelay = Duration.ofSeconds(retryDelaySeconds);
+        this.minRefreshDelay = Duration.ofMillis(minRefreshDelayMs);
+        this.defaultLifetime = Duration.ofSeconds(defaultLifetimeSeconds);
+        // A fetch cannot take longer than connecting and reading; allow one retry delay on top
+        this.fetchTimeout = Duration.ofMillis(connectTimeoutMs + readTimeoutMs).plus(retryDelay);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "service-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void prefetch() {
+        refresh();
+    }
+
+    public String getAccessToken() {
+        CachedToken current = token;
+        Instant now = Instant.now();
+        if (current != null && now.isBefore(current.expiresAt())) {
+            if (!now.isBefore(current.refreshAt())) {
+                // The scheduled renewal is late (e.g. Keycloak was down); nudge it without waiting
+                refresh();
+            }
+            return current.value();
+        }
+        try {
+            return currentOrRefresh().get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS).value();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out after " + fetchTimeout.toMillis()
+                    + "ms waiting for a client-credentials token");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a client-credentials token", e);
+        }
+    }
+
+    // Checked again under the lock: a fetch may have completed since the caller found no token, and
+    // refresh() would then start another one
+    private synchronized CompletableFuture<CachedToken> currentOrRefresh() {
+        CachedToken current = token;
+        if (current != null && Instant.now().isBefore(current.expiresAt())) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return refresh();
+    }
+
+    // Single-flight: starts a fetch unless one is already running and returns the shared result
+    private synchronized CompletableFuture<CachedToken> refresh() {
+        if (inFlight == null || inFlight.isDone()) {
+            inFlight = CompletableFuture.supplyAsync(this::fetchToken, refresher)
+                    .whenComplete(this::onRefreshed);
+        }
+        return inFlight;
+    }
+
+    private synchronized void onRefreshed(CachedToken fetched, Throwable error) {
+        Duration nextRefresh;
+        if (fetched != null) {
+            token = fetched;
+            nextRefresh = Duration.between(Instant.now(), fetched.refreshAt());
+        } else {
+            logger.warn("Client-credentials token refresh failed, retrying in {}s: {}",
+                    retryDelay.toSeconds(), error.getMessage());
+            nextRefresh = retryDelay;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        if (!refresher.isShutdown()) {
+            scheduledRefresh = refresher.schedule(this::refresh,
+                    Math.max(nextRefresh.toMillis(), minRefreshDelay.toMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private CachedToken fetchToken() {
+        logger.debug("Requesting client-credentials token for {}", clientId);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "client_credentials");
+        form.add("client_id", clientId);
+        form.add("client_secret", clientSecret);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        Map<?, ?> response = keycloakClient.postForObject(tokenEndpoint, new HttpEntity<>(form, headers), Map.class);
+        if (response == null || response.get("access_token") == null) {
+            throw new IllegalStateException("Token endpoint returned no access_token");
+        }
+        Number expiresIn = (Number) response.get("expires_in");
+        Duration lifetime = expiresIn != null && expiresIn.longValue() > 0
+                ? Duration.ofSeconds(expiresIn.longValue())
+                : defaultLifetime;
+        // Renew refresh-skew before expiry, but for tokens barely longer lived than the skew not
+        // before half their lifetime, and never sooner than the minimum delay
+        Duration refreshIn = lifetime.minus(refreshSkew);
+        if (refreshIn.compareTo(lifetime.dividedBy(2)) < 0) {
+            refreshIn = lifetime.dividedBy(2);
+        }
+        if (refreshIn.compareTo(minRefreshDelay) < 0) {
+            refreshIn = minRefreshDelay;
+        }
+        Instant now = Instant.now();
+        return new CachedToken((String) response.get("access_token"), now.plus(refreshIn), now.plus(lifetime));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private record CachedToken(String value, Instant refreshAt, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.microservices.customerservice.service;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs address-service calls off the request thread so that enriching N customers costs roughly the
+// slowest single call instead of the sum of all calls. The pool size is the global concurrency cap;
+// submissions beyond the queue capacity fail fast instead of piling up.
+@Component
+public class AddressEnrichmentExecutor {
+
+    // System.nanoTime() deadline of the call running on this thread. orTimeout only abandons the
+    // future, so the HTTP client reads this to end the request itself (see AppConfig).
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+    private final long callTimeoutMs;
+
+    public AddressEnrichmentExecutor(@Value("${address-enrichment.max-concurrency:16}") int maxConcurrency,
+                                     @Value("${address-enrichment.queue-capacity:1000}") int queueCapacity,
+                                     @Value("${address-enrichment.call-timeout-ms:2000}") long callTimeoutMs) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.threadPool = new ThreadPoolExecutor(
+                maxConcurrency, maxConcurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "address-enrichment-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.threadPool.allowCoreThreadTimeOut(true);
+        // Propagates the caller's SecurityContext, and the current observation so address calls show up
+        // as children of the request's trace
+        this.executor = new DelegatingSecurityContextExecutorService(ContextExecutorService.wrap(threadPool,
+                ContextSnapshotFactory.builder().build()::captureAll));
+        this.callTimeoutMs = callTimeoutMs;
+    }
+
+    // Milliseconds left before the deadline of the enrichment call on the current thread, if any
+    public static OptionalLong remainingMillis() {
+        Long deadline = DEADLINE.get();
+        return deadline == null
+                ? OptionalLong.empty()
+                : OptionalLong.of(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        // The deadline counts from submission, like orTimeout, so time spent queued is included
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callTimeoutMs);
+        try {
+            return CompletableFuture.supplyAsync(() -> callBefore(deadline, call), executor)
+                    .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> T callBefore(long deadline, Supplier<T> call) {
+        DEADLINE.set(deadline);
+        try {
+            return call.get();
+        } finally {
+            DEADLINE.remove();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdownNow();
+    }
+}
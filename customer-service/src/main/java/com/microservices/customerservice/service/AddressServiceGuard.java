@@ -0,0 +1,82 @@
+package com.microservices.customerservice.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.function.Supplier;
+
+// Every address-service call goes through a semaphore bulkhead (caps concurrent calls, rejects
+// instead of queueing) and the "address-service" circuit breaker (configured under
+// resilience4j.circuitbreaker.instances, state at /actuator/circuitbreakers). Idempotent calls are
+// also retried with jittered exponential backoff, as long as the shared retry budget allows it.
+@Component
+public class AddressServiceGuard {
+    public static final String NAME = "address-service";
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Retry retry;
+    private final RetryBudget retryBudget;
+
+    public AddressServiceGuard(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                               RetryRegistry retryRegistry,
+                               @Value("${address-service.retry.max-attempts:3}") int maxAttempts,
+                               @Value("${address-service.retry.initial-backoff-ms:50}") long initialBackoffMs,
+                               @Value("${address-service.retry.budget-ratio:0.1}") double budgetRatio,
+                               @Value("${address-service.retry.budget-min-per-second:5}") double budgetMinPerSecond) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+        this.retryBudget = new RetryBudget(budgetRatio, budgetMinPerSecond, Math.max(budgetMinPerSecond, 1) * 10);
+        this.retry = retryRegistry.retry(NAME, RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                // 50ms, ~100ms, ~200ms ... each randomized by +/-50% so callers don't retry in lockstep
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(initialBackoffMs, 2.0, 0.5))
+                .retryOnException(e -> isTransient(e) && retryBudget.canRetry())
+                .build());
+        // Charged only for retries that actually happen (the predicate also runs on the last attempt)
+        this.retry.getEventPublisher().onRetry(event -> retryBudget.recordRetry());
+    }
+
+    /**
+     * For reads and deletes, which are safe to repeat.
+     */
+    public <T> T call(Supplier<T> call) {
+        retryBudget.recordCall();
+        return Retry.decorateSupplier(retry, guarded(call)).get();
+    }
+
+    /**
+     * For calls that must not be repeated (creating addresses).
+     */
+    public <T> T callOnce(Supplier<T> call) {
+        return guarded(call).get();
+    }
+
+    private <T> Supplier<T> guarded(Supplier<T> call) {
+        return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call));
+    }
+
+    // Connection problems and gateway-style 5xx; never 4xx or local rejections
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        if (e instanceof HttpServerErrorException serverError) {
+            int status = serverError.getStatusCode().value();
+            return status == HttpStatus.BAD_GATEWAY.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || status == HttpStatus.GATEWAY_TIMEOUT.value();
+        }
+        return false;
+    }
+}
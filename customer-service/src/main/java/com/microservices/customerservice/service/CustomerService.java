@@ -1,16 +1,34 @@
 package com.microservices.customerservice.service;
 
+import com.microservices.customerservice.dto.CustomerImportResultDTO;
 import com.microservices.customerservice.entity.Customer;
 import com.microservices.customerservice.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class CustomerService {
     private final CustomerRepository customerRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${customer-import.batch-size:500}")
+    private int importBatchSize;
+
     @Autowired
     public CustomerService(CustomerRepository customerRepository) {
         this.customerRepository = customerRepository;
@@ -20,12 +38,47 @@ public class CustomerService {
         return customerRepository.findAll();
     }
 
+    public List<Customer> getCustomersPage(int page, int size) {
+        return customerRepository.findAllBy(PageRequest.of(page, size, Sort.by("id"))).getContent();
+    }
+
+    public List<Customer> getCustomersAfter(Long afterId, int size) {
+        return customerRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size));
+    }
+
+    // Flushes immediately so a unique email violation surfaces here as DataIntegrityViolationException
     public Customer addCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        return customerRepository.saveAndFlush(customer);
     }
 
-    public boolean existsByEmail(String email) {
-        return customerRepository.existsByEmail(email);
+    // High-throughput write path: inserts are sent as JDBC batches (hibernate.jdbc.batch_size) and ids
+    // come from the pooled sequence, so a chunk costs a handful of round trips instead of two per row.
+    // Customers whose email already exists, or repeats within the request, are skipped.
+    @Transactional
+    public CustomerImportResultDTO importCustomers(List<Customer> customers) {
+        CustomerImportResultDTO result = new CustomerImportResultDTO();
+        Set<String> seenEmails = new HashSet<>();
+        for (int from = 0; from < customers.size(); from += importBatchSize) {
+            List<Customer> chunk = customers.subList(from, Math.min(from + importBatchSize, customers.size()));
+            Set<String> knownEmails = customerRepository.findExistingEmails(
+                    chunk.stream().map(Customer::getEmail).collect(Collectors.toSet()));
+
+            List<Customer> toInsert = new ArrayList<>(chunk.size());
+            for (Customer customer : chunk) {
+                customer.setId(null);
+                if (!seenEmails.add(customer.getEmail()) || knownEmails.contains(customer.getEmail())) {
+                    result.getSkippedEmails().add(customer.getEmail());
+                } else {
+                    toInsert.add(customer);
+                }
+            }
+            customerRepository.saveAll(toInsert);
+            // Flush the batch and keep the persistence context from growing with the import
+            entityManager.flush();
+            entityManager.clear();
+            result.setImported(result.getImported() + toInsert.size());
+        }
+        return result;
     }
 
     public Customer getCustomerById(Long id) {
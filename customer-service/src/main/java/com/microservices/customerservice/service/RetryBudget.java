@@ -0,0 +1,44 @@
+package com.microservices.customerservice.service;
+
+/**
+ * Caps retries at a fraction of the calls made: every call deposits {@code retryRatio} tokens, every
+ * retry withdraws one. A small per-second reserve still lets a quiet service retry at all. When the
+ * downstream fails across the board the budget runs dry and retries stop adding load to it.
+ */
+public class RetryBudget {
+
+    private final double retryRatio;
+    private final double minRetriesPerSecond;
+    private final double maxBalance;
+
+    private double balance;
+    private long lastRefillNanos = System.nanoTime();
+
+    public RetryBudget(double retryRatio, double minRetriesPerSecond, double maxBalance) {
+        this.retryRatio = retryRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxBalance = maxBalance;
+        this.balance = maxBalance;
+    }
+
+    public synchronized void recordCall() {
+        refill();
+        balance = Math.min(maxBalance, balance + retryRatio);
+    }
+
+    public synchronized boolean canRetry() {
+        refill();
+        return balance >= 1;
+    }
+
+    // Concurrent retries admitted by canRetry() may briefly push the balance below zero
+    public synchronized void recordRetry() {
+        balance -= 1;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        balance = Math.min(maxBalance, balance + (now - lastRefillNanos) / 1e9 * minRetriesPerSecond);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,11 @@
+-- Embedded-database variant of oracle/V1__baseline.sql
+CREATE SEQUENCE customer_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE customer (
+    id           BIGINT       NOT NULL,
+    email        VARCHAR(255) NOT NULL,
+    name         VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_customer PRIMARY KEY (id),
+    CONSTRAINT uk_customer_email UNIQUE (email)
+);
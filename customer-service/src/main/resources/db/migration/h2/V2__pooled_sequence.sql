@@ -0,0 +1,2 @@
+-- Embedded-database variant of oracle/V2__pooled_sequence.sql
+ALTER SEQUENCE customer_seq INCREMENT BY 50;
@@ -0,0 +1,4 @@
+-- Embedded-database variant of oracle/V3__name_email_constraint.sql
+ALTER TABLE customer DROP CONSTRAINT IF EXISTS uk_customer_email;
+
+ALTER TABLE customer ADD CONSTRAINT uk_customer_email UNIQUE (email);
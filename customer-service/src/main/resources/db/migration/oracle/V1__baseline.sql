@@ -0,0 +1,12 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+CREATE SEQUENCE customer_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE customer (
+    id           NUMBER(19, 0)      NOT NULL,
+    email        VARCHAR2(255 CHAR) NOT NULL,
+    name         VARCHAR2(255 CHAR) NOT NULL,
+    phone_number VARCHAR2(255 CHAR) NOT NULL,
+    CONSTRAINT pk_customer PRIMARY KEY (id),
+    CONSTRAINT uk_customer_email UNIQUE (email)
+);
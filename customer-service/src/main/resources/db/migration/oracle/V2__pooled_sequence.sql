@@ -0,0 +1,2 @@
+-- Customer uses @SequenceGenerator(allocationSize = 50): every nextval reserves a block of 50 ids
+ALTER SEQUENCE customer_seq INCREMENT BY 50;
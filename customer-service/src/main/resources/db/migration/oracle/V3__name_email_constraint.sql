@@ -0,0 +1,26 @@
+-- createCustomer maps a duplicate email to 409 by the constraint name uk_customer_email. Databases
+-- created by ddl-auto=update and baselined at V1 still carry a generated SYS_C... name for the unique
+-- constraint on email: rename it, or add the constraint if there is none.
+DECLARE
+    named BOOLEAN := FALSE;
+BEGIN
+    FOR c IN (SELECT uc.constraint_name, uc.index_name
+              FROM user_constraints uc
+              JOIN user_cons_columns ucc ON ucc.constraint_name = uc.constraint_name
+              WHERE uc.table_name = 'CUSTOMER' AND uc.constraint_type = 'U'
+              GROUP BY uc.constraint_name, uc.index_name
+              HAVING COUNT(*) = 1 AND MAX(ucc.column_name) = 'EMAIL') LOOP
+        IF c.constraint_name <> 'UK_CUSTOMER_EMAIL' THEN
+            EXECUTE IMMEDIATE 'ALTER TABLE customer RENAME CONSTRAINT ' || c.constraint_name
+                || ' TO uk_customer_email';
+            IF c.index_name = c.constraint_name THEN
+                EXECUTE IMMEDIATE 'ALTER INDEX ' || c.index_name || ' RENAME TO uk_customer_email';
+            END IF;
+        END IF;
+        named := TRUE;
+    END LOOP;
+    IF NOT named THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE customer ADD CONSTRAINT uk_customer_email UNIQUE (email)';
+    END IF;
+END;
+/
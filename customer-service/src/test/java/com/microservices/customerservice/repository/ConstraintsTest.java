@@ -0,0 +1,57 @@
+package com.microservices.customerservice.repository;
+
+import com.microservices.commons.util.Constraints;
+import com.microservices.customerservice.entity.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Violations raised by the Flyway schema on an embedded database: only the email constraint is a duplicate
+@DataJpaTest(showSql = false, properties = {
+        "logging.level.root=INFO",
+        "logging.level.org.springframework=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.microservices=INFO"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConstraintsTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAllInBatch();
+        customerRepository.saveAndFlush(customer("Alice", "alice@example.com"));
+    }
+
+    private static Customer customer(String name, String email) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setPhoneNumber("05550000000");
+        return customer;
+    }
+
+    @Test
+    void duplicateEmailViolatesTheEmailConstraint() {
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> customerRepository.saveAndFlush(customer("Alice again", "alice@example.com")));
+        assertThat(Constraints.isViolationOf(e, "uk_customer_email")).isTrue();
+    }
+
+    @Test
+    void missingNameIsNotAnEmailViolation() {
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> customerRepository.saveAndFlush(customer(null, "bob@example.com")));
+        assertThat(Constraints.isViolationOf(e, "uk_customer_email")).isFalse();
+    }
+}
@@ -0,0 +1,109 @@
+package com.microservices.customerservice.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ServiceTokenProviderTest {
+
+    private static final String TOKEN_ENDPOINT = "http://keycloak.test/realms/test/protocol/openid-connect/token";
+
+    private final MockServerRestTemplateCustomizer mockServer = new MockServerRestTemplateCustomizer();
+    private ServiceTokenProvider provider;
+
+    private ServiceTokenProvider newProvider(long refreshSkewSeconds, long minRefreshDelayMs) {
+        provider = new ServiceTokenProvider(new RestTemplateBuilder(mockServer), TOKEN_ENDPOINT,
+                "customer-service", "secret", refreshSkewSeconds, 5, minRefreshDelayMs, 60, 1000, 1000);
+        return provider;
+    }
+
+    private static String tokenResponse(String token, long expiresIn) {
+        return "{\"access_token\":\"" + token + "\",\"expires_in\":" + expiresIn + "}";
+    }
+
+    @AfterEach
+    void shutdown() {
+        provider.shutdown();
+    }
+
+    @Test
+    void concurrentCallersShareOneTokenRequest() throws Exception {
+        ServiceTokenProvider tokens = newProvider(30, 5000);
+        MockRestServiceServer server = mockServer.getServer();
+        server.expect(once(), requestTo(TOKEN_ENDPOINT))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().formData(new LinkedMultiValueMap<>(Map.of(
+                        "grant_type", List.of("client_credentials"),
+                        "client_id", List.of("customer-service"),
+                        "client_secret", List.of("secret")))))
+                .andRespond(withSuccess(tokenResponse("token-1", 300), MediaType.APPLICATION_JSON));
+
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<String>> calls = IntStream.range(0, 64)
+                    .<Callable<String>>mapToObj(i -> tokens::getAccessToken)
+                    .toList();
+            for (Future<String> result : callers.invokeAll(calls)) {
+                assertEquals("token-1", result.get());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        server.verify();
+    }
+
+    @Test
+    void renewsTheTokenInTheBackgroundBeforeItExpires() throws Exception {
+        // Lifetime shorter than the refresh skew: the renewal is scheduled at half the lifetime
+        ServiceTokenProvider tokens = newProvider(30, 100);
+        MockRestServiceServer server = mockServer.getServer();
+        server.expect(once(), requestTo(TOKEN_ENDPOINT))
+                .andRespond(withSuccess(tokenResponse("token-1", 1), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(TOKEN_ENDPOINT))
+                .andRespond(withSuccess(tokenResponse("token-2", 3600), MediaType.APPLICATION_JSON));
+
+        tokens.prefetch();
+        String token = tokens.getAccessToken();
+        for (int i = 0; i < 100 && !token.equals("token-2"); i++) {
+            Thread.sleep(20);
+            token = tokens.getAccessToken();
+        }
+        assertEquals("token-2", token);
+        server.verify();
+    }
+
+    @Test
+    void doesNotRefreshInALoopWhenExpiresInIsMissing() throws Exception {
+        ServiceTokenProvider tokens = newProvider(30, 5000);
+        MockRestServiceServer server = mockServer.getServer();
+        server.expect(once(), requestTo(TOKEN_ENDPOINT))
+                .andRespond(withSuccess("{\"access_token\":\"token-1\"}", MediaType.APPLICATION_JSON));
+
+        tokens.prefetch();
+        assertEquals("token-1", tokens.getAccessToken());
+        Thread.sleep(300);
+        assertEquals("token-1", tokens.getAccessToken());
+        // A second request would fail verification as unexpected
+        server.verify();
+    }
+}
@@ -0,0 +1,68 @@
+package com.microservices.customerservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AddressEnrichmentExecutorTest {
+
+    private final AddressEnrichmentExecutor executor = new AddressEnrichmentExecutor(1, 10, 500);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void callsSeeTheTimeLeftBeforeTheirDeadline() {
+        OptionalLong remaining = executor.submit(AddressEnrichmentExecutor::remainingMillis).join();
+
+        assertThat(remaining).isPresent();
+        assertThat(remaining.getAsLong()).isBetween(0L, 500L);
+        // Nothing leaks to the caller or to the next task on the pool thread
+        assertThat(AddressEnrichmentExecutor.remainingMillis()).isEmpty();
+        assertThat(executor.submit(() -> AddressEnrichmentExecutor.remainingMillis().getAsLong()).join())
+                .isBetween(0L, 500L);
+    }
+
+    @Test
+    void timeSpentQueuedCountsAgainstTheDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        CompletableFuture<OptionalLong> queued = executor.submit(AddressEnrichmentExecutor::remainingMillis);
+        Thread.sleep(300);
+        release.countDown();
+
+        assertThat(queued.join().getAsLong()).isLessThanOrEqualTo(200L);
+    }
+
+    @Test
+    void callsThatOverrunTheirDeadlineTimeOut() {
+        CompletableFuture<String> call = executor.submit(() -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        });
+
+        assertThatThrownBy(call::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+}
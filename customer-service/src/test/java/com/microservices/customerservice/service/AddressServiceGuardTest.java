@@ -0,0 +1,91 @@
+package com.microservices.customerservice.service;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AddressServiceGuardTest {
+
+    private static AddressServiceGuard guard(CircuitBreakerRegistry circuitBreakers, double budgetMinPerSecond) {
+        return new AddressServiceGuard(circuitBreakers, BulkheadRegistry.ofDefaults(), RetryRegistry.ofDefaults(),
+                3, 1, 0.1, budgetMinPerSecond);
+    }
+
+    private static AddressServiceGuard guard() {
+        return guard(CircuitBreakerRegistry.ofDefaults(), 5);
+    }
+
+    @Test
+    void retriesTransientFailuresOfIdempotentCalls() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = guard().call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ResourceAccessException("connection reset");
+            }
+            return "addresses";
+        });
+        assertEquals("addresses", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void neverRetriesClientErrorsOrNonIdempotentCalls() {
+        AddressServiceGuard guard = guard();
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+            attempts.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+        assertThrows(HttpServerErrorException.class, () -> guard.callOnce(() -> {
+            attempts.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void stopsRetryingWhenTheBudgetIsSpent() {
+        // No per-second reserve: the initial balance of 10 retries is all there is
+        AddressServiceGuard guard = guard(CircuitBreakerRegistry.ofDefaults(), 0);
+        AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.call(() -> {
+                attempts.incrementAndGet();
+                throw new ResourceAccessException("down");
+            }));
+        }
+        // 20 first attempts plus the retries the budget allowed: the initial 10 and about one more
+        // earned by the 0.1-per-call deposits, instead of 2 retries for every call
+        assertTrue(attempts.get() >= 30 && attempts.get() <= 31, "attempts: " + attempts.get());
+    }
+
+    @Test
+    void failsFastOnceTheBreakerIsOpen() {
+        AddressServiceGuard guard = guard(CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .build()), 5);
+        AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> guard.callOnce(() -> {
+                attempts.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            }));
+        }
+        assertThrows(CallNotPermittedException.class, () -> guard.call(() -> attempts.incrementAndGet()));
+        assertEquals(4, attempts.get());
+    }
+}
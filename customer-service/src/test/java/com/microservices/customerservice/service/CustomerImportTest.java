@@ -0,0 +1,102 @@
+package com.microservices.customerservice.service;
+
+import com.microservices.customerservice.dto.CustomerImportResultDTO;
+import com.microservices.customerservice.entity.Customer;
+import com.microservices.customerservice.repository.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Behaviour of the batched import path against an embedded database: JDBC statement counts compared
+// with the per-row write path (one save and one transaction per customer, as POST /customers does),
+// and skipping of duplicate emails. Throughput is measured by CustomerImportBenchmark in benchmarks.
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "logging.level.root=INFO",
+        "logging.level.org.springframework=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.microservices=INFO"
+})
+@Import(CustomerService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerImportTest {
+
+    private static final int ROWS = 200;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAllInBatch();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void batchedImportNeedsFarFewerStatementsThanPerRowInserts() {
+        for (Customer customer : customers("row")) {
+            customerService.addCustomer(customer);
+        }
+        long perRowStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        CustomerImportResultDTO result = customerService.importCustomers(customers("import"));
+        long importStatements = statistics.getPrepareStatementCount();
+
+        assertThat(result.getImported()).isEqualTo(ROWS);
+        assertThat(customerRepository.count()).isEqualTo(2L * ROWS);
+        assertThat(importStatements).isLessThan(perRowStatements / 10);
+    }
+
+    @Test
+    void importSkipsExistingAndRepeatedEmails() {
+        customerService.addCustomer(customer("taken", 0));
+        List<Customer> customers = new ArrayList<>(customers("new").subList(0, 3));
+        customers.add(customer("taken", 0));
+        customers.add(customer("new", 1));
+
+        CustomerImportResultDTO result = customerService.importCustomers(customers);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getSkippedEmails()).containsExactly("taken0@example.com", "new1@example.com");
+    }
+
+    private static List<Customer> customers(String prefix) {
+        List<Customer> customers = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            customers.add(customer(prefix, i));
+        }
+        return customers;
+    }
+
+    private static Customer customer(String prefix, int i) {
+        Customer customer = new Customer();
+        customer.setName(prefix + " customer " + i);
+        customer.setEmail(prefix + i + "@example.com");
+        customer.setPhoneNumber("0555" + String.format("%07d", i));
+        return customer;
+    }
+}
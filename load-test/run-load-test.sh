@@ -0,0 +1,70 @@
+#!/bin/sh
+# End-to-end load test on one machine, no Keycloak, Oracle or Eureka needed:
+#   1. stub identity provider (Keycloak paths, realm "perf") on :8180
+#   2. address-service :8083 and customer-service :8081 on embedded H2 (Spring profile "perf")
+#   3. api-gateway :8082 with static routes (Spring profile "perf")
+#   4. the load generator, which prints throughput and latency percentiles per CRUD flow
+# Service logs go to target/logs. Arguments go to the load generator, e.g.
+#   ./run-load-test.sh --users 32 --warmup-seconds 20 --duration-seconds 120 --report-file target/report.json
+#   MVN_ARGS=-o ./run-load-test.sh        build from the local Maven repository only
+#   SKIP_BUILD=1 ./run-load-test.sh       reuse the jars from the previous run
+set -e
+cd "$(dirname "$0")"
+ROOT=$(cd .. && pwd)
+VERSION=0.0.1-SNAPSHOT
+IDP_URL=http://localhost:8180
+
+if [ -z "$SKIP_BUILD" ]; then
+    mvn -B -q $MVN_ARGS -f "$ROOT/log-shipping/pom.xml" install
+    mvn -B -q $MVN_ARGS -f "$ROOT/service-commons/pom.xml" install
+    mvn -B -q $MVN_ARGS -f "$ROOT/address-service/pom.xml" -Pperf package -DskipTests
+    mvn -B -q $MVN_ARGS -f "$ROOT/customer-service/pom.xml" -Pperf package -DskipTests
+    mvn -B -q $MVN_ARGS -f "$ROOT/api-gateway/pom.xml" package -DskipTests
+    mvn -B -q $MVN_ARGS package
+fi
+mkdir -p target/logs
+
+PIDS=""
+cleanup() {
+    for pid in $PIDS; do
+        kill "$pid" 2>/dev/null || true
+    done
+}
+trap cleanup EXIT INT TERM
+
+# Any HTTP answer counts: the services protect /actuator/health behind a token
+wait_for() {
+    attempts=0
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$1")" != "000" ]; do
+        attempts=$((attempts + 1))
+        if [ "$attempts" -ge 120 ]; then
+            echo "Timed out waiting for $1 (see target/logs)" >&2
+            exit 1
+        fi
+        sleep 1
+    done
+}
+
+start_service() {
+    echo "Starting $1 on :$2"
+    java -jar "$ROOT/$1/target/$1-$VERSION-exec.jar" --spring.profiles.active=perf > "target/logs/$1.log" 2>&1 &
+    PIDS="$PIDS $!"
+    wait_for "http://localhost:$2/actuator/health"
+}
+
+echo "Starting stub identity provider on :8180"
+java -cp target/load-test.jar com.microservices.loadtest.StubIdentityProvider --port 8180 --realm perf \
+    --public-key-file target/stub-public-key.txt > target/logs/stub-idp.log 2>&1 &
+PIDS="$PIDS $!"
+wait_for "$IDP_URL/realms/perf/.well-known/openid-configuration"
+
+export KEYCLOAK_SERVER_URL=$IDP_URL
+export KEYCLOAK_CWSMU_REALM=perf
+export KEYCLOAK_CAR_RS256_PUBLIC_KEY="$(cat target/stub-public-key.txt)"
+
+start_service address-service 8083
+start_service customer-service 8081
+start_service api-gateway 8082
+
+java -jar target/load-test.jar --gateway http://localhost:8082 \
+    --token-endpoint "$IDP_URL/realms/perf/protocol/openid-connect/token" "$@"
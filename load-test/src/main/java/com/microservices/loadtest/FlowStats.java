@@ -0,0 +1,70 @@
+package com.microservices.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and outcomes of one request type. Each worker records into its own instance; the
+ * instances are merged once the run is over, so recording needs no synchronization.
+ */
+final class FlowStats {
+
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private long errors;
+    private long rejected;
+
+    void record(long latencyNanos, int status) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        if (status == 429) {
+            rejected++;
+        } else if (status >= 400 || status < 0) {
+            errors++;
+        }
+    }
+
+    void merge(FlowStats other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latenciesNanos[i], 200);
+        }
+        errors += other.errors;
+        rejected += other.rejected;
+    }
+
+    long count() {
+        return count;
+    }
+
+    Map<String, Object> summary(double measuredSeconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("rejected", rejected);
+        summary.put("throughput", count / measuredSeconds);
+        summary.put("p50Ms", percentileMillis(sorted, 0.50));
+        summary.put("p90Ms", percentileMillis(sorted, 0.90));
+        summary.put("p99Ms", percentileMillis(sorted, 0.99));
+        summary.put("p999Ms", percentileMillis(sorted, 0.999));
+        summary.put("maxMs", sorted.length > 0 ? toMillis(sorted[sorted.length - 1]) : 0.0);
+        return summary;
+    }
+
+    private static double percentileMillis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return toMillis(sorted[Math.max(0, index)]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
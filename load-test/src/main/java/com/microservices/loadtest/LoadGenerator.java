@@ -0,0 +1,238 @@
+package com.microservices.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load through the gateway: every virtual user has its own token and repeatedly creates a
+ * customer with addresses, reads it, lists a page of customers, updates it (one address changed, one
+ * added) and deletes it. Requests sent during the warm-up are not recorded. Prints throughput and
+ * latency percentiles per flow and optionally writes them as JSON.
+ *
+ * <pre>java -jar load-test.jar --gateway http://localhost:8082 --users 16 --duration-seconds 60</pre>
+ */
+public class LoadGenerator {
+
+    enum Flow { CREATE, READ, LIST, UPDATE, DELETE }
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String gatewayUrl;
+    private final int readsPerCustomer;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    LoadGenerator(String gatewayUrl, int readsPerCustomer) {
+        this.gatewayUrl = gatewayUrl;
+        this.readsPerCustomer = readsPerCustomer;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        String gatewayUrl = arguments.get("gateway", "http://localhost:8082");
+        String tokenEndpoint = arguments.get("token-endpoint",
+                "http://localhost:8180/realms/perf/protocol/openid-connect/token");
+        int users = arguments.getInt("users", 16);
+        int warmupSeconds = arguments.getInt("warmup-seconds", 15);
+        int durationSeconds = arguments.getInt("duration-seconds", 60);
+        String reportFile = arguments.get("report-file", null);
+
+        LoadGenerator generator = new LoadGenerator(gatewayUrl, arguments.getInt("reads-per-customer", 3));
+        Map<String, Object> report = generator.run(tokenEndpoint, users, warmupSeconds, durationSeconds);
+        generator.print(report);
+        if (reportFile != null) {
+            Files.write(Path.of(reportFile), objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(report));
+        }
+    }
+
+    Map<String, Object> run(String tokenEndpoint, int users, int warmupSeconds, int durationSeconds)
+            throws IOException, InterruptedException {
+        List<String> tokens = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            tokens.add(fetchToken(tokenEndpoint, "perf-user-" + user));
+        }
+
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Map<Flow, FlowStats>> perUser = new ArrayList<>(users);
+        List<Thread> workers = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            Map<Flow, FlowStats> stats = newStats();
+            perUser.add(stats);
+            int userId = user;
+            Thread worker = new Thread(() -> runUser(userId, tokens.get(userId), stats, measureFrom, measureUntil),
+                    "load-user-" + user);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<Flow, FlowStats> merged = newStats();
+        FlowStats all = new FlowStats();
+        for (Map<Flow, FlowStats> stats : perUser) {
+            stats.forEach((flow, flowStats) -> {
+                merged.get(flow).merge(flowStats);
+                all.merge(flowStats);
+            });
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("gateway", gatewayUrl);
+        report.put("users", users);
+        report.put("warmupSeconds", warmupSeconds);
+        report.put("durationSeconds", durationSeconds);
+        Map<String, Object> flows = new LinkedHashMap<>();
+        merged.forEach((flow, stats) -> flows.put(flow.name().toLowerCase(), stats.summary(durationSeconds)));
+        flows.put("all", all.summary(durationSeconds));
+        report.put("flows", flows);
+        return report;
+    }
+
+    private void runUser(int userId, String token, Map<Flow, FlowStats> stats, long measureFrom, long measureUntil) {
+        long iteration = 0;
+        while (System.nanoTime() < measureUntil) {
+            try {
+                runScenario(userId + "-" + iteration++, token, stats, measureFrom);
+            } catch (IOException e) {
+                // Connection-level failure: already recorded by send(), start the next iteration
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void runScenario(String key, String token, Map<Flow, FlowStats> stats, long measureFrom)
+            throws IOException, InterruptedException {
+        ObjectNode customer = objectMapper.createObjectNode()
+                .put("name", "Load Test " + key)
+                .put("email", "load-" + runId + "-" + key + "@example.com")
+                .put("phoneNumber", "5550000000");
+        ArrayNode addresses = customer.putArray("addresses");
+        addresses.add(address("Home", "1 Main Street"));
+        addresses.add(address("Work", "2 Market Street"));
+
+        HttpResponse<byte[]> created = send(Flow.CREATE, stats, measureFrom, request(token, "/customers")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(customer))));
+        if (created.statusCode() != 201) {
+            return;
+        }
+        long id = objectMapper.readTree(created.body()).path("id").asLong();
+
+        JsonNode stored = null;
+        for (int i = 0; i < readsPerCustomer; i++) {
+            HttpResponse<byte[]> read = send(Flow.READ, stats, measureFrom, request(token, "/customers/" + id).GET());
+            if (read.statusCode() == 200) {
+                stored = objectMapper.readTree(read.body());
+            }
+        }
+
+        int page = ThreadLocalRandom.current().nextInt(10);
+        send(Flow.LIST, stats, measureFrom, request(token, "/customers?page=" + page + "&size=20").GET());
+
+        if (stored != null && stored.path("addresses").size() > 0) {
+            ObjectNode update = stored.deepCopy();
+            update.remove("addressesUnavailable");
+            update.put("name", "Load Test " + key + " (updated)");
+            ArrayNode updatedAddresses = (ArrayNode) update.get("addresses");
+            ((ObjectNode) updatedAddresses.get(0)).put("street", "10 Main Street");
+            updatedAddresses.add(address("Holiday", "3 Beach Road"));
+            send(Flow.UPDATE, stats, measureFrom, request(token, "/customers/" + id)
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(update))));
+        }
+
+        send(Flow.DELETE, stats, measureFrom, request(token, "/customers/" + id).DELETE());
+    }
+
+    private HttpResponse<byte[]> send(Flow flow, Map<Flow, FlowStats> stats, long measureFrom,
+                                      HttpRequest.Builder request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (start >= measureFrom) {
+                stats.get(flow).record(System.nanoTime() - start, response.statusCode());
+            }
+            return response;
+        } catch (IOException e) {
+            if (start >= measureFrom) {
+                stats.get(flow).record(System.nanoTime() - start, -1);
+            }
+            throw e;
+        }
+    }
+
+    private HttpRequest.Builder request(String token, String path) {
+        return HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private static ObjectNode address(String name, String street) {
+        return objectMapper.createObjectNode()
+                .put("addressName", name)
+                .put("street", street)
+                .put("city", "Springfield")
+                .put("state", "IL")
+                .put("zipCode", "62701");
+    }
+
+    private String fetchToken(String tokenEndpoint, String username) throws IOException, InterruptedException {
+        String form = "grant_type=password&client_id=perf-load&username="
+                + URLEncoder.encode(username, StandardCharsets.UTF_8) + "&password=perf";
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create(tokenEndpoint))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Token endpoint answered " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("access_token").asText();
+    }
+
+    private static Map<Flow, FlowStats> newStats() {
+        Map<Flow, FlowStats> stats = new EnumMap<>(Flow.class);
+        for (Flow flow : Flow.values()) {
+            stats.put(flow, new FlowStats());
+        }
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void print(Map<String, Object> report) {
+        System.out.printf("%nLoad test through %s: %s users, %ss measured after %ss warm-up%n",
+                report.get("gateway"), report.get("users"), report.get("durationSeconds"), report.get("warmupSeconds"));
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "flow", "requests", "errors", "rejected", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        ((Map<String, Map<String, Object>>) report.get("flows")).forEach((flow, summary) ->
+                System.out.printf("%-8s %9d %7d %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", flow,
+                        summary.get("requests"), summary.get("errors"), summary.get("rejected"), summary.get("throughput"),
+                        summary.get("p50Ms"), summary.get("p90Ms"), summary.get("p99Ms"), summary.get("p999Ms"),
+                        summary.get("maxMs")));
+    }
+}
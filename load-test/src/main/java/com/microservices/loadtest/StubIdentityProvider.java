@@ -0,0 +1,202 @@
+package com.microservices.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Stand-in for the Keycloak realm the services trust: serves OIDC discovery, the JWKS and a token
+ * endpoint on Keycloak's paths, signing RS256 tokens with a key pair generated at startup. Grants:
+ * client_credentials (service accounts), password (any user name, any password) and refresh_token.
+ * The public key is written base64-encoded to --public-key-file for the gateway's
+ * keycloak.realm.public-key.
+ *
+ * <pre>java -cp load-test.jar com.microservices.loadtest.StubIdentityProvider --port 8180 --realm perf</pre>
+ */
+public class StubIdentityProvider {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final RSAKey signingKey;
+    private final String issuer;
+    private final long tokenTtlSeconds;
+    private final HttpServer server;
+
+    public StubIdentityProvider(int port, String realm, long tokenTtlSeconds) throws IOException, JOSEException {
+        this.signingKey = new RSAKeyGenerator(2048).keyID("perf-" + UUID.randomUUID()).generate();
+        this.issuer = "http://localhost:" + port + "/realms/" + realm;
+        this.tokenTtlSeconds = tokenTtlSeconds;
+        String base = "/realms/" + realm;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())));
+        server.createContext(base + "/.well-known/openid-configuration", this::discovery);
+        server.createContext(base + "/protocol/openid-connect/certs", this::certs);
+        server.createContext(base + "/protocol/openid-connect/token", this::token);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        StubIdentityProvider provider = new StubIdentityProvider(arguments.getInt("port", 8180),
+                arguments.get("realm", "perf"), arguments.getInt("token-ttl-seconds", 3600));
+        String publicKeyFile = arguments.get("public-key-file", null);
+        if (publicKeyFile != null) {
+            Files.writeString(Path.of(publicKeyFile), provider.publicKeyBase64());
+        }
+        provider.start();
+        System.out.println("Stub identity provider ready at " + provider.issuer);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public String publicKeyBase64() throws JOSEException {
+        return Base64.getEncoder().encodeToString(signingKey.toPublicKey().getEncoded());
+    }
+
+    private void discovery(HttpExchange exchange) throws IOException {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("issuer", issuer);
+        metadata.put("authorization_endpoint", issuer + "/protocol/openid-connect/auth");
+        metadata.put("token_endpoint", issuer + "/protocol/openid-connect/token");
+        metadata.put("userinfo_endpoint", issuer + "/protocol/openid-connect/userinfo");
+        metadata.put("jwks_uri", issuer + "/protocol/openid-connect/certs");
+        metadata.put("grant_types_supported", List.of("client_credentials", "password", "refresh_token"));
+        metadata.put("response_types_supported", List.of("code"));
+        metadata.put("subject_types_supported", List.of("public"));
+        metadata.put("id_token_signing_alg_values_supported", List.of("RS256"));
+        metadata.put("scopes_supported", List.of("openid", "profile", "email"));
+        respond(exchange, 200, metadata);
+    }
+
+    private void certs(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, new JWKSet(signingKey.toPublicJWK()).toJSONObject());
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, Map.of("error", "invalid_request"));
+            return;
+        }
+        Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String clientId = form.getOrDefault("client_id", "perf-client");
+        try {
+            String subject;
+            switch (form.getOrDefault("grant_type", "")) {
+                case "client_credentials" -> subject = "service-account-" + clientId;
+                case "password" -> subject = form.getOrDefault("username", "perf-user");
+                case "refresh_token" -> subject = subjectOfRefreshToken(form.get("refresh_token"));
+                default -> {
+                    respond(exchange, 400, Map.of("error", "unsupported_grant_type"));
+                    return;
+                }
+            }
+            boolean serviceAccount = subject.startsWith("service-account-");
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("access_token", sign(subject, clientId, serviceAccount, "Bearer", tokenTtlSeconds));
+            response.put("expires_in", tokenTtlSeconds);
+            response.put("token_type", "Bearer");
+            response.put("scope", "openid profile email");
+            if (!serviceAccount) {
+                response.put("refresh_token", sign(subject, clientId, false, "Refresh", tokenTtlSeconds * 2));
+                response.put("refresh_expires_in", tokenTtlSeconds * 2);
+            }
+            respond(exchange, 200, response);
+        } catch (JOSEException | ParseException | IllegalArgumentException e) {
+            respond(exchange, 400, Map.of("error", "invalid_grant", "error_description", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private String sign(String subject, String clientId, boolean serviceAccount, String type, long ttlSeconds)
+            throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(subject)
+                .audience("account")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(ttlSeconds)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("typ", type)
+                .claim("azp", clientId)
+                .claim("scope", "openid profile email")
+                .claim("preferred_username", subject);
+        if (serviceAccount) {
+            claims.claim("client_id", clientId);
+        }
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .keyID(signingKey.getKeyID())
+                .type(JOSEObjectType.JWT)
+                .build(), claims.build());
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+
+    private String subjectOfRefreshToken(String refreshToken) throws ParseException, JOSEException {
+        if (refreshToken == null) {
+            throw new IllegalArgumentException("refresh_token is required");
+        }
+        SignedJWT jwt = SignedJWT.parse(refreshToken);
+        JWTClaimsSet claims = jwt.getJWTClaimsSet();
+        if (!jwt.verify(new RSASSAVerifier(signingKey.toRSAPublicKey()))
+                || !"Refresh".equals(claims.getClaim("typ"))
+                || claims.getExpirationTime().before(new Date())) {
+            throw new IllegalArgumentException("Invalid or expired refresh token");
+        }
+        return claims.getSubject();
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.microservices.logshipping;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback appender that ships log events to logging-service in batches (POST /logs/batch).
+ * The appender takes no lock: logging threads only enqueue into a bounded buffer, and when the buffer
+ * is full, or logging-service keeps answering 429, events are dropped and counted instead. When
+ * disabled it returns before filters run, so the cost of being attached to root is one field read.
+ * Shared by the services and configured in their logback-spring.xml.
+ */
+public class LogShippingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    private static final String SHIPPER_THREAD_NAME = "log-shipper";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String url;
+    private String service;
+    private boolean enabled;
+    private int queueSize = 10000;
+    private int batchSize = 500;
+    private long flushIntervalMs = 1000;
+
+    private BlockingQueue<Map<String, Object>> queue;
+    private HttpClient httpClient;
+    private Thread shipper;
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    @Override
+    public void start() {
+        if (enabled) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+            httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+            shipper = new Thread(this::shipLoop, SHIPPER_THREAD_NAME);
+            shipper.setDaemon(true);
+            shipper.start();
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (shipper != null) {
+            shipper.interrupt();
+        }
+    }
+
+    @Override
+    public void doAppend(ILoggingEvent event) {
+        if (!enabled) {
+            return;
+        }
+        super.doAppend(event);
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Never ship what the shipper itself (or its HTTP client) logs
+        if (SHIPPER_THREAD_NAME.equals(event.getThreadName())) {
+            return;
+        }
+        if (!queue.offer(toJson(event))) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    private Map<String, Object> toJson(ILoggingEvent event) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("timestamp", event.getTimeStamp());
+        json.put("service", service);
+        json.put("level", event.getLevel().toString());
+        json.put("logger", event.getLoggerName());
+        json.put("thread", event.getThreadName());
+        json.put("message", event.getFormattedMessage());
+        json.put("traceId", event.getMDCPropertyMap().get("traceId"));
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            json.put("exception", ThrowableProxyUtil.asString(throwable));
+        }
+        return json;
+    }
+
+    private void shipLoop() {
+        List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Map<String, Object> first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                droppedEvents.addAndGet(batch.size());
+                addWarn("Failed to ship " + batch.size() + " log events: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Map<String, Object>> batch) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 429) {
+            // logging-service is saturated: wait as asked and retry the batch once
+            long retryAfterSeconds = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfterSeconds));
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+        if (response.statusCode() >= 300) {
+            droppedEvents.addAndGet(batch.size());
+        }
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+}
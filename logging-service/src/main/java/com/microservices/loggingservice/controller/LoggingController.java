@@ -1,15 +1,40 @@
 package com.microservices.loggingservice.controller;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.microservices.loggingservice.dto.LogEvent;
+import com.microservices.loggingservice.ingest.LogEventBuffer;
+import com.microservices.loggingservice.store.LogStore;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequestMapping("/logs")
 public class LoggingController {
 
-    private static final Logger logger = LogManager.getLogger(LoggingController.class);
+    // Seconds a client should wait before resending a batch rejected because the buffer is full
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final int MAX_QUERY_LIMIT = 1000;
+
+    private final LogEventBuffer logEventBuffer;
+    private final LogStore logStore;
+    private final ObjectReader logEventReader;
+
+    public LoggingController(LogEventBuffer logEventBuffer, LogStore logStore, ObjectMapper objectMapper) {
+        this.logEventBuffer = logEventBuffer;
+        this.logStore = logStore;
+        this.logEventReader = objectMapper.readerFor(LogEvent.class);
+    }
 
     /**@PostMapping
     public ResponseEntity<Void> logMessage(@RequestParam String level, @RequestParam String message) {
@@ -34,7 +59,50 @@ public class LoggingController {
 
     @PostMapping("/logs")
     public ResponseEntity<Void> receiveLog(@RequestBody String logMessage) {
-        logger.info("Received log: {}", logMessage);
-        return ResponseEntity.ok().build();
+        LogEvent event = new LogEvent(System.currentTimeMillis(), null, "INFO", null,
+                null, "Received log: " + logMessage, null, null);
+        return enqueue(List.of(event));
+    }
+
+    // POST http://localhost:8084/logs/batch with a JSON array of log events
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> receiveBatch(@RequestBody List<LogEvent> events) {
+        return enqueue(events);
+    }
+
+    // POST http://localhost:8084/logs/batch with one JSON log event per line
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Void> receiveNdjsonBatch(InputStream body) throws IOException {
+        try (MappingIterator<LogEvent> events = logEventReader.readValues(body)) {
+            return enqueue(events.readAll());
+        }
+    }
+
+    // GET http://localhost:8084/logs/query?service=customer-service&level=ERROR&from=2024-01-01T00:00:00Z
+    // GET http://localhost:8084/logs/query?traceId=<id>
+    // Returns the most recent matching events (up to limit), oldest first
+    @GetMapping("/query")
+    public ResponseEntity<List<LogEvent>> query(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String traceId,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_QUERY_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        return ResponseEntity.ok(logStore.query(fromMillis, toMillis, service, level, traceId, limit));
+    }
+
+    private ResponseEntity<Void> enqueue(List<LogEvent> events) {
+        if (!logEventBuffer.offerAll(events)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+        return ResponseEntity.accepted().build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.microservices.loggingservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// One structured log event as shipped by the services (timestamp in epoch millis)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LogEvent(
+        long timestamp,
+        String service,
+        String level,
+        String logger,
+        String thread,
+        String message,
+        String traceId,
+        String exception) {
+}
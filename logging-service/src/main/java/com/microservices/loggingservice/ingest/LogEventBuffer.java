@@ -0,0 +1,124 @@
+package com.microservices.loggingservice.ingest;
+
+import com.microservices.loggingservice.dto.LogEvent;
+import com.microservices.loggingservice.store.LogStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory buffer between the ingestion endpoints and the log writer. Request threads only
+ * enqueue; a single background thread drains the buffer in batches and hands the events to the
+ * asynchronous "ingested" Log4j2 logger and to the queryable {@link LogStore}. When the buffer is
+ * full, whole batches are rejected so the caller can back off and retry.
+ */
+@Component
+public class LogEventBuffer {
+    private static final Logger logger = LogManager.getLogger(LogEventBuffer.class);
+    // One fixed logger for all shipped events: the service name is client input and goes into the
+    // message, so it cannot grow Log4j's logger registry
+    private static final Logger ingestedLogger = LogManager.getLogger("ingested");
+
+    private final LogStore logStore;
+    private final BlockingQueue<LogEvent> queue;
+    private final int drainBatchSize;
+    private final Thread writer;
+    private final Counter rejectedBatches;
+    private volatile boolean running = true;
+
+    public LogEventBuffer(LogStore logStore, MeterRegistry meterRegistry,
+                          @Value("${log-ingest.buffer-capacity:65536}") int capacity,
+                          @Value("${log-ingest.drain-batch-size:1024}") int drainBatchSize) {
+        this.logStore = logStore;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.drainBatchSize = drainBatchSize;
+        this.writer = new Thread(this::drainLoop, "log-ingest-writer");
+        this.writer.setDaemon(true);
+        Gauge.builder("log.ingest.buffer.size", queue, BlockingQueue::size)
+                .description("Log events waiting to be written")
+                .register(meterRegistry);
+        this.rejectedBatches = Counter.builder("log.ingest.rejected.batches")
+                .description("Batches answered with 429 because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Enqueues all events or none of them. Returns false when the buffer has no room for the batch.
+     */
+    public synchronized boolean offerAll(List<LogEvent> events) {
+        if (queue.remainingCapacity() < events.size()) {
+            rejectedBatches.increment();
+            return false;
+        }
+        // Cannot fail: this is the only producer path and it is synchronized
+        queue.addAll(events);
+        return true;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<LogEvent> batch = new ArrayList<>(drainBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LogEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, drainBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Failed to write {} log events: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<LogEvent> batch) {
+        for (LogEvent event : batch) {
+            Level level = Level.toLevel(event.level(), Level.INFO);
+            String service = event.service() != null ? event.service() : "unknown";
+            ingestedLogger.log(level, "{} {} [{}] [{}] {} - {}{}",
+                    service,
+                    Instant.ofEpochMilli(event.timestamp()),
+                    event.traceId() != null ? event.traceId() : "-",
+                    event.thread(),
+                    event.logger(),
+                    event.message(),
+                    event.exception() != null ? System.lineSeparator() + event.exception() : "");
+        }
+        logStore.append(batch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(5000);
+    }
+}
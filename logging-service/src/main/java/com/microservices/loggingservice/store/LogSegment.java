@@ -0,0 +1,223 @@
+package com.microservices.loggingservice.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One append-only, memory-mapped segment file of the log store. Records are stored as
+ * [int length][JSON bytes]; a zero length marks the end of the written part. Next to the file the
+ * segment keeps an in-memory index: per-record offset, timestamp, service and level codes, the time
+ * range and code sets of the whole segment, and a traceId posting list. Queries use it to skip whole
+ * segments and to filter records without decoding them. The approximate heap size of the index is
+ * tracked so the store can bound it. Not thread-safe; guarded by {@link LogStore}.
+ */
+class LogSegment {
+    static final int HEADER_BYTES = Integer.BYTES;
+    // offset + timestamp + service code + level code
+    private static final int RECORD_INDEX_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    // Rough cost of a posting list map entry, its String key and array headers
+    private static final int TRACE_ENTRY_BYTES = 96;
+
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private boolean closed;
+
+    private int count;
+    private int[] offsets = new int[1024];
+    private long[] timestamps = new long[1024];
+    private int[] serviceCodes = new int[1024];
+    private int[] levelCodes = new int[1024];
+
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private final Set<Integer> services = new HashSet<>();
+    private final Set<Integer> levels = new HashSet<>();
+    private final Map<String, int[]> recordsByTraceId = new HashMap<>();
+    private long indexBytes = (long) offsets.length * RECORD_INDEX_BYTES;
+
+    LogSegment(long id, Path path, int size) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+    }
+
+    long id() {
+        return id;
+    }
+
+    int count() {
+        return count;
+    }
+
+    Set<Integer> services() {
+        return services;
+    }
+
+    long indexBytes() {
+        return indexBytes;
+    }
+
+    boolean hasRoomFor(int recordBytes) {
+        // Keep room for the zero length that terminates the written part
+        return writePosition + HEADER_BYTES + recordBytes + HEADER_BYTES <= buffer.capacity();
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Appends a record and returns its offset. The caller must check {@link #hasRoomFor(int)} first.
+     */
+    int append(byte[] record) {
+        int offset = writePosition;
+        buffer.put(offset + HEADER_BYTES, record);
+        buffer.putInt(offset, record.length);
+        writePosition = offset + HEADER_BYTES + record.length;
+        return offset;
+    }
+
+    /**
+     * Returns the offset of the record after the one at the given offset, or -1 at the end of the
+     * written part. Used to recover the index when an existing segment is reopened.
+     */
+    int nextRecord(int offset) {
+        if (offset + HEADER_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+            return -1;
+        }
+        return offset + HEADER_BYTES + length;
+    }
+
+    void setWritePosition(int writePosition) {
+        this.writePosition = writePosition;
+    }
+
+    byte[] read(int offset) {
+        byte[] record = new byte[buffer.getInt(offset)];
+        buffer.get(offset + HEADER_BYTES, record);
+        return record;
+    }
+
+    void index(int offset, long timestamp, int serviceCode, int levelCode, String traceId) {
+        if (count == offsets.length) {
+            int newLength = count * 2;
+            offsets = Arrays.copyOf(offsets, newLength);
+            timestamps = Arrays.copyOf(timestamps, newLength);
+            serviceCodes = Arrays.copyOf(serviceCodes, newLength);
+            levelCodes = Arrays.copyOf(levelCodes, newLength);
+            indexBytes += (long) count * RECORD_INDEX_BYTES;
+        }
+        offsets[count] = offset;
+        timestamps[count] = timestamp;
+        serviceCodes[count] = serviceCode;
+        levelCodes[count] = levelCode;
+
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        services.add(serviceCode);
+        levels.add(levelCode);
+        if (traceId != null) {
+            // First element holds the number of used slots
+            int[] records = recordsByTraceId.get(traceId);
+            if (records == null) {
+                records = new int[5];
+                recordsByTraceId.put(traceId, records);
+                indexBytes += TRACE_ENTRY_BYTES + 2L * traceId.length() + (long) records.length * Integer.BYTES;
+            } else if (records[0] + 1 == records.length) {
+                indexBytes += (long) records.length * Integer.BYTES;
+                records = Arrays.copyOf(records, records.length * 2);
+                recordsByTraceId.put(traceId, records);
+            }
+            records[++records[0]] = count;
+        }
+        count++;
+    }
+
+    boolean mayContain(long from, long to, Integer serviceCode, Integer levelCode, String traceId) {
+        return count > 0
+                && minTimestamp <= to && maxTimestamp >= from
+                && (serviceCode == null || services.contains(serviceCode))
+                && (levelCode == null || levels.contains(levelCode))
+                && (traceId == null || recordsByTraceId.containsKey(traceId));
+    }
+
+    /**
+     * Record numbers to look at for the query, newest first: the traceId posting list if a traceId is
+     * given, otherwise every record of the segment.
+     */
+    int[] candidates(String traceId) {
+        if (traceId != null) {
+            int[] records = recordsByTraceId.get(traceId);
+            int[] candidates = new int[records[0]];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = records[records[0] - i];
+            }
+            return candidates;
+        }
+        int[] candidates = new int[count];
+        for (int i = 0; i < count; i++) {
+            candidates[i] = count - 1 - i;
+        }
+        return candidates;
+    }
+
+    boolean matches(int record, long from, long to, Integer serviceCode, Integer levelCode) {
+        return timestamps[record] >= from && timestamps[record] <= to
+                && (serviceCode == null || serviceCodes[record] == serviceCode)
+                && (levelCode == null || levelCodes[record] == levelCode);
+    }
+
+    int offset(int record) {
+        return offsets[record];
+    }
+
+    /**
+     * Flushes the segment, releases its file handle and trims the index to its final size; the
+     * segment is read-only from then on. The mapping stays readable until the segment is garbage
+     * collected.
+     */
+    void close() throws IOException {
+        if (!closed) {
+            buffer.force();
+            channel.close();
+            closed = true;
+            trimIndex();
+        }
+    }
+
+    private void trimIndex() {
+        offsets = Arrays.copyOf(offsets, count);
+        timestamps = Arrays.copyOf(timestamps, count);
+        serviceCodes = Arrays.copyOf(serviceCodes, count);
+        levelCodes = Arrays.copyOf(levelCodes, count);
+        indexBytes = (long) count * RECORD_INDEX_BYTES;
+        for (Map.Entry<String, int[]> entry : recordsByTraceId.entrySet()) {
+            int[] records = Arrays.copyOf(entry.getValue(), entry.getValue()[0] + 1);
+            entry.setValue(records);
+            indexBytes += TRACE_ENTRY_BYTES + 2L * entry.getKey().length() + (long) records.length * Integer.BYTES;
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,278 @@
+package com.microservices.loggingservice.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.microservices.loggingservice.dto.LogEvent;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, queryable store for ingested log events. Events are written to memory-mapped segment
+ * files under {@code log-store.directory}; a new segment is started when the current one is full and
+ * the oldest segments are deleted beyond {@code log-store.max-segments}. Every segment keeps an
+ * in-memory index (time range, services, levels, traceIds), so a query only decodes the records that
+ * match. The index is rebuilt from the segment files on startup.
+ * <p>
+ * Everything a client can influence is bounded: at most {@code log-store.max-services} distinct
+ * service names are indexed (further ones are indexed as one shared "other" service, which queries
+ * cannot select), levels are mapped onto the fixed Log4j levels, and the oldest segments are also
+ * deleted once the indexes together exceed {@code log-store.max-index-bytes}.
+ * <p>
+ * Appends come from the single ingest writer thread; queries may run concurrently with it.
+ */
+@Component
+public class LogStore {
+    private static final Logger logger = LogManager.getLogger(LogStore.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String UNKNOWN_SERVICE = "unknown";
+    private static final int OTHER_SERVICE_CODE = -1;
+    private static final Map<String, Integer> LEVEL_CODES =
+            Map.of("TRACE", 0, "DEBUG", 1, "INFO", 2, "WARN", 3, "ERROR", 4, "FATAL", 5);
+    private static final int DEFAULT_LEVEL_CODE = LEVEL_CODES.get("INFO");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int maxServices;
+    private final long maxIndexBytes;
+    private final ObjectWriter eventWriter;
+    private final ObjectReader eventReader;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Oldest first; the last one is the segment being appended to
+    private final Deque<LogSegment> segments = new ArrayDeque<>();
+    // Services are stored in the index as small integer codes; codes no segment uses any more are
+    // released when segments are deleted
+    private final Map<String, Integer> serviceCodes = new HashMap<>();
+    private int nextServiceCode;
+    private boolean serviceLimitLogged;
+
+    public LogStore(@Value("${log-store.directory:logs/store}") String directory,
+                    @Value("${log-store.segment-size-bytes:67108864}") int segmentSize,
+                    @Value("${log-store.max-segments:64}") int maxSegments,
+                    @Value("${log-store.max-services:256}") int maxServices,
+                    @Value("${log-store.max-index-bytes:268435456}") long maxIndexBytes,
+                    ObjectMapper objectMapper) throws IOException {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.maxServices = maxServices;
+        this.maxIndexBytes = maxIndexBytes;
+        this.eventWriter = objectMapper.writerFor(LogEvent.class);
+        this.eventReader = objectMapper.readerFor(LogEvent.class);
+        Files.createDirectories(this.directory);
+        recover();
+    }
+
+    /**
+     * Appends a batch of events. Events too large to fit in an empty segment are dropped.
+     */
+    public void append(List<LogEvent> events) {
+        lock.writeLock().lock();
+        try {
+            for (LogEvent event : events) {
+                byte[] record = eventWriter.writeValueAsBytes(event);
+                LogSegment segment = activeSegment(record.length);
+                if (segment == null) {
+                    logger.warn("Dropping log event of {} bytes, larger than a segment", record.length);
+                    continue;
+                }
+                index(segment, segment.append(record), event);
+            }
+            enforceIndexLimit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the most recent events matching all given filters (null means "any"), oldest first.
+     * Timestamps are epoch milliseconds, both bounds inclusive.
+     */
+    public List<LogEvent> query(long from, long to, String service, String level, String traceId, int limit) {
+        List<byte[]> records = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Integer serviceCode = service != null ? serviceCodes.get(service) : null;
+            Integer levelCode = level != null ? LEVEL_CODES.get(level.toUpperCase(Locale.ROOT)) : null;
+            if ((service != null && serviceCode == null) || (level != null && levelCode == null)) {
+                return List.of();
+            }
+            Iterator<LogSegment> newestFirst = segments.descendingIterator();
+            while (newestFirst.hasNext() && records.size() < limit) {
+                LogSegment segment = newestFirst.next();
+                if (!segment.mayContain(from, to, serviceCode, levelCode, traceId)) {
+                    continue;
+                }
+                for (int record : segment.candidates(traceId)) {
+                    if (segment.matches(record, from, to, serviceCode, levelCode)) {
+                        records.add(segment.read(segment.offset(record)));
+                        if (records.size() == limit) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Decode outside the lock so queries hold up the writer as little as possible
+        List<LogEvent> events = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            try {
+                events.add(eventReader.readValue(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        events.sort(Comparator.comparingLong(LogEvent::timestamp));
+        return events;
+    }
+
+    private LogSegment activeSegment(int recordBytes) throws IOException {
+        LogSegment active = segments.peekLast();
+        if (active != null && active.hasRoomFor(recordBytes)) {
+            return active;
+        }
+        long id = active != null ? active.id() + 1 : 1;
+        LogSegment segment = new LogSegment(id, segmentPath(id), segmentSize);
+        if (!segment.hasRoomFor(recordBytes)) {
+            segment.delete();
+            return null;
+        }
+        if (active != null) {
+            active.close();
+        }
+        segments.addLast(segment);
+        while (segments.size() > maxSegments) {
+            deleteOldestSegment();
+        }
+        return segment;
+    }
+
+    private void enforceIndexLimit() throws IOException {
+        long indexBytes = 0;
+        for (LogSegment segment : segments) {
+            indexBytes += segment.indexBytes();
+        }
+        // The active segment is kept even if its index alone is over the limit
+        while (indexBytes > maxIndexBytes && segments.size() > 1) {
+            LogSegment oldest = segments.peekFirst();
+            indexBytes -= oldest.indexBytes();
+            deleteOldestSegment();
+        }
+    }
+
+    private void deleteOldestSegment() throws IOException {
+        segments.removeFirst().delete();
+        Set<Integer> used = new HashSet<>();
+        for (LogSegment segment : segments) {
+            used.addAll(segment.services());
+        }
+        serviceCodes.values().retainAll(used);
+    }
+
+    private void index(LogSegment segment, int offset, LogEvent event) {
+        String service = event.service() != null ? event.service() : UNKNOWN_SERVICE;
+        int levelCode = event.level() != null
+                ? LEVEL_CODES.getOrDefault(event.level().toUpperCase(Locale.ROOT), DEFAULT_LEVEL_CODE)
+                : DEFAULT_LEVEL_CODE;
+        segment.index(offset, event.timestamp(), serviceCode(service), levelCode, event.traceId());
+    }
+
+    private int serviceCode(String service) {
+        Integer code = serviceCodes.get(service);
+        if (code != null) {
+            return code;
+        }
+        if (serviceCodes.size() >= maxServices) {
+            if (!serviceLimitLogged) {
+                logger.warn("More than {} distinct services; indexing further ones as \"other\"", maxServices);
+                serviceLimitLogged = true;
+            }
+            return OTHER_SERVICE_CODE;
+        }
+        code = nextServiceCode++;
+        serviceCodes.put(service, code);
+        return code;
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            LogSegment segment = new LogSegment(id, file, segmentSize);
+            int offset = 0;
+            for (int next = segment.nextRecord(0); next != -1; next = segment.nextRecord(offset)) {
+                index(segment, offset, eventReader.readValue(segment.read(offset)));
+                offset = next;
+            }
+            segment.setWritePosition(offset);
+            // Only the newest segment is appended to; release the file handles of the others
+            LogSegment previous = segments.peekLast();
+            if (previous != null) {
+                previous.close();
+            }
+            segments.addLast(segment);
+        }
+        while (segments.size() > maxSegments) {
+            deleteOldestSegment();
+        }
+        enforceIndexLimit();
+        if (!segments.isEmpty()) {
+            logger.info("Recovered {} log store segments from {}", segments.size(), directory);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (LogSegment segment : segments) {
+                segment.close();
+            }
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.microservices.loggingservice.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.loggingservice.dto.LogEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogStoreTest {
+
+    // Small segments so a few hundred events span several files
+    private static final int SEGMENT_SIZE = 8 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private LogStore open(int maxSegments) throws Exception {
+        return open(maxSegments, 256, Long.MAX_VALUE);
+    }
+
+    private LogStore open(int maxSegments, int maxServices, long maxIndexBytes) throws Exception {
+        return new LogStore(directory.toString(), SEGMENT_SIZE, maxSegments, maxServices, maxIndexBytes,
+                new ObjectMapper());
+    }
+
+    private static List<LogEvent> events(int count) {
+        List<LogEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(new LogEvent(1_000L + i, i % 2 == 0 ? "customer-service" : "address-service",
+                    i % 10 == 0 ? "ERROR" : "INFO", "test", "main", "event " + i, "trace-" + (i / 5), null));
+        }
+        return events;
+    }
+
+    @Test
+    void filtersByTimeServiceLevelAndTraceId() throws Exception {
+        LogStore store = open(100);
+        store.append(events(500));
+
+        List<LogEvent> errors = store.query(Long.MIN_VALUE, Long.MAX_VALUE, "customer-service", "error", null, 1000);
+        assertEquals(50, errors.size());
+        assertTrue(errors.stream().allMatch(e -> e.level().equals("ERROR") && e.service().equals("customer-service")));
+
+        List<LogEvent> trace = store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, "trace-42", 1000);
+        assertEquals(List.of("event 210", "event 211", "event 212", "event 213", "event 214"),
+                trace.stream().map(LogEvent::message).toList());
+
+        List<LogEvent> window = store.query(1_100L, 1_199L, "address-service", null, null, 1000);
+        assertEquals(50, window.size());
+        assertTrue(window.stream().allMatch(e -> e.timestamp() >= 1_100L && e.timestamp() <= 1_199L));
+
+        assertTrue(store.query(Long.MIN_VALUE, Long.MAX_VALUE, "gateway", null, null, 10).isEmpty());
+        store.close();
+    }
+
+    @Test
+    void limitKeepsMostRecentEventsOldestFirst() throws Exception {
+        LogStore store = open(100);
+        store.append(events(500));
+
+        List<LogEvent> latest = store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, 3);
+        assertEquals(List.of(1_497L, 1_498L, 1_499L), latest.stream().map(LogEvent::timestamp).toList());
+        store.close();
+    }
+
+    @Test
+    void rebuildsIndexFromSegmentsAndKeepsAppending() throws Exception {
+        LogStore store = open(100);
+        store.append(events(300));
+        store.close();
+
+        LogStore reopened = open(100);
+        reopened.append(events(1));
+        assertEquals(301, reopened.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, 1000).size());
+        assertEquals(6, reopened.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, "trace-0", 1000).size());
+        reopened.close();
+    }
+
+    @Test
+    void deletesOldestSegmentsBeyondRetention() throws Exception {
+        LogStore store = open(3);
+        store.append(events(500));
+
+        try (var files = Files.list(directory)) {
+            assertEquals(3, files.count());
+        }
+        List<LogEvent> remaining = store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, 1000);
+        assertTrue(remaining.size() < 500);
+        assertEquals(1_499L, remaining.get(remaining.size() - 1).timestamp());
+        store.close();
+    }
+
+    @Test
+    void indexesServicesBeyondTheLimitAsOther() throws Exception {
+        LogStore store = open(100, 2, Long.MAX_VALUE);
+        store.append(events(10));
+        store.append(List.of(new LogEvent(2_000L, "spoofed-1", "INFO", "test", "main", "x", null, null),
+                new LogEvent(2_001L, "spoofed-2", "NOT-A-LEVEL", "test", "main", "y", null, null)));
+
+        assertEquals(5, store.query(Long.MIN_VALUE, Long.MAX_VALUE, "customer-service", null, null, 1000).size());
+        assertTrue(store.query(Long.MIN_VALUE, Long.MAX_VALUE, "spoofed-1", null, null, 1000).isEmpty());
+        // Still stored and returned by unfiltered queries; unknown levels count as INFO
+        assertEquals(12, store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, 1000).size());
+        assertEquals(2, store.query(2_000L, 2_001L, null, "info", null, 1000).size());
+        store.close();
+    }
+
+    @Test
+    void deletesOldestSegmentsBeyondIndexBudget() throws Exception {
+        LogStore store = open(100, 256, 64 * 1024);
+        store.append(events(5_000));
+
+        List<LogEvent> remaining = store.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, 10_000);
+        assertTrue(remaining.size() < 5_000);
+        assertEquals(5_999L, remaining.get(remaining.size() - 1).timestamp());
+        try (var files = Files.list(directory)) {
+            assertTrue(files.count() < 100);
+        }
+        store.close();
+    }
+}
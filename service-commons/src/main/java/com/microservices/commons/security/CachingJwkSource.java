@@ -0,0 +1,138 @@
+package com.microservices.commons.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JWK set source that keeps the realm keys in memory. Once the TTL has passed the keys are refreshed
+ * in the background while requests keep using the cached set. A token with an unknown kid (key
+ * rotation) triggers an immediate refetch, at most once per min-refetch-interval so that forged kids
+ * cannot hammer Keycloak. Failed fetches keep the last known keys. Keys can be preloaded from a JWKS
+ * file, which also allows running without the JWKS endpoint.
+ */
+public class CachingJwkSource implements JWKSource<SecurityContext> {
+    private static final Logger logger = LoggerFactory.getLogger(CachingJwkSource.class);
+
+    private final URL jwkSetUrl;
+    private final ResourceRetriever retriever;
+    private final Duration ttl;
+    private final Duration minRefetchInterval;
+    private final ExecutorService backgroundRefresher;
+    private final AtomicBoolean backgroundRefreshRunning = new AtomicBoolean();
+
+    private volatile JWKSet jwkSet;
+    private volatile Instant fetchedAt = Instant.MIN;
+    // Guarded by this
+    private Instant lastFetchAttempt = Instant.MIN;
+
+    /**
+     * @param jwkSetUrl   JWKS endpoint, or null to use only the preloaded keys
+     * @param preloadFile JWKS file loaded at startup, or null
+     */
+    public CachingJwkSource(URL jwkSetUrl, File preloadFile, Duration ttl, Duration minRefetchInterval,
+                            Duration connectTimeout, Duration readTimeout) throws IOException, ParseException {
+        this.jwkSetUrl = jwkSetUrl;
+        this.retriever = new DefaultResourceRetriever((int) connectTimeout.toMillis(), (int) readTimeout.toMillis());
+        this.ttl = ttl;
+        this.minRefetchInterval = minRefetchInterval;
+        this.backgroundRefresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (preloadFile != null) {
+            this.jwkSet = JWKSet.load(preloadFile);
+            this.fetchedAt = Instant.now();
+            logger.info("Preloaded {} JWKs from {}", jwkSet.getKeys().size(), preloadFile);
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current == null) {
+            // Cold start without preloaded keys: the only time a request waits for the JWKS endpoint
+            current = refetch(Instant.MIN);
+            if (current == null) {
+                throw new KeySourceException("No JWK set available from " + jwkSetUrl);
+            }
+        } else if (Instant.now().isAfter(fetchedAt.plus(ttl))) {
+            refreshInBackground();
+        }
+
+        List<JWK> matches = jwkSelector.select(current);
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+        String kid = requestedKeyId(jwkSelector.getMatcher());
+        if (kid == null || current.getKeyByKeyId(kid) != null) {
+            return matches;
+        }
+        // Unknown kid: the realm key may have rotated
+        JWKSet refreshed = refetch(fetchedAt);
+        return refreshed != null ? jwkSelector.select(refreshed) : matches;
+    }
+
+    private void refreshInBackground() {
+        if (jwkSetUrl != null && backgroundRefreshRunning.compareAndSet(false, true)) {
+            backgroundRefresher.execute(() -> {
+                try {
+                    refetch(fetchedAt);
+                } finally {
+                    backgroundRefreshRunning.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Fetches the JWK set unless another caller already did since {@code seenFetchedAt} or the last
+     * attempt was less than min-refetch-interval ago. Returns the current set either way.
+     */
+    private synchronized JWKSet refetch(Instant seenFetchedAt) {
+        Instant now = Instant.now();
+        if (jwkSetUrl == null || fetchedAt.isAfter(seenFetchedAt)
+                || now.isBefore(lastFetchAttempt.plus(minRefetchInterval))) {
+            return jwkSet;
+        }
+        lastFetchAttempt = now;
+        try {
+            jwkSet = JWKSet.parse(retriever.retrieveResource(jwkSetUrl).getContent());
+            fetchedAt = Instant.now();
+        } catch (IOException | ParseException e) {
+            logger.warn("Failed to fetch JWK set from {}, keeping {} cached keys: {}", jwkSetUrl,
+                    jwkSet != null ? jwkSet.getKeys().size() : 0, e.getMessage());
+        }
+        return jwkSet;
+    }
+
+    private static String requestedKeyId(JWKMatcher matcher) {
+        Set<String> keyIds = matcher.getKeyIDs();
+        return keyIds != null && keyIds.size() == 1 ? keyIds.iterator().next() : null;
+    }
+
+    public void shutdown() {
+        backgroundRefresher.shutdownNow();
+    }
+}
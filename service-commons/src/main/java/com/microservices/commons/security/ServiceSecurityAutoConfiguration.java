@@ -0,0 +1,108 @@
+package com.microservices.commons.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.servlet.OAuth2ResourceServerAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Resource server setup of the servlet services: every request except /public/** needs a bearer token,
+ * verified against the realm's JWK set with both the keys and the decoded tokens cached. Registered as
+ * an auto-configuration, ahead of Spring Boot's own security defaults, so test slices such as
+ * {@code @DataJpaTest} leave it out.
+ */
+@AutoConfiguration(before = {SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class,
+        OAuth2ResourceServerAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableWebSecurity
+public class ServiceSecurityAutoConfiguration {
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    // JWKS cache: keys are refreshed in the background after the TTL and refetched at most once per
+    // min-refetch-interval for unknown kids. remote-enabled=false with a preload file works offline.
+    @Value("${jwt.jwks.remote-enabled:true}")
+    private boolean jwksRemoteEnabled;
+
+    @Value("${jwt.jwks.preload-file:}")
+    private String jwksPreloadFile;
+
+    @Value("${jwt.jwks.cache-ttl-seconds:300}")
+    private long jwksCacheTtlSeconds;
+
+    @Value("${jwt.jwks.min-refetch-interval-seconds:30}")
+    private long jwksMinRefetchIntervalSeconds;
+
+    @Value("${jwt.jwks.connect-timeout-ms:1000}")
+    private long jwksConnectTimeoutMs;
+
+    @Value("${jwt.jwks.read-timeout-ms:2000}")
+    private long jwksReadTimeoutMs;
+
+    // Decoded tokens are cached by hash until their exp claim, capped by max-ttl-seconds
+    @Value("${jwt.decoded-cache.max-size:10000}")
+    private long decodedCacheMaxSize;
+
+    @Value("${jwt.decoded-cache.max-ttl-seconds:300}")
+    private long decodedCacheMaxTtlSeconds;
+
+    public ServiceSecurityAutoConfiguration() {
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
+        http
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/public/**").permitAll()
+                        .anyRequest().authenticated()
+                )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwtConfigurer -> jwtConfigurer.decoder(jwtDecoder))
+                );
+
+        return http.build();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public CachingJwkSource jwkSource() throws IOException, ParseException {
+        return new CachingJwkSource(
+                jwksRemoteEnabled ? new URL(jwkSetUri) : null,
+                StringUtils.hasText(jwksPreloadFile) ? new File(jwksPreloadFile) : null,
+                Duration.ofSeconds(jwksCacheTtlSeconds),
+                Duration.ofSeconds(jwksMinRefetchIntervalSeconds),
+                Duration.ofMillis(jwksConnectTimeoutMs),
+                Duration.ofMillis(jwksReadTimeoutMs));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder() throws IOException, ParseException {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource()));
+        // Claims are validated by NimbusJwtDecoder (timestamps), as with withJwkSetUri()
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new CachingJwtDecoder(new NimbusJwtDecoder(jwtProcessor), decodedCacheMaxSize,
+                Duration.ofSeconds(decodedCacheMaxTtlSeconds));
+    }
+}
+
@@ -0,0 +1,41 @@
+package com.microservices.commons.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which database constraint a {@link DataIntegrityViolationException} violated, so only the
+ * expected unique constraints are translated into 409 and NOT NULL or foreign key violations are not.
+ */
+public final class Constraints {
+
+    private Constraints() {
+    }
+
+    /**
+     * True if the violated constraint, or the unique index backing it, has one of the given names.
+     * Names are matched case-insensitively and with or without a schema prefix (Oracle reports
+     * SCHEMA.UK_..., H2 the backing index, e.g. PUBLIC.UK_..._INDEX_5).
+     */
+    public static boolean isViolationOf(DataIntegrityViolationException e, String... names) {
+        String violated = e.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        if (violated == null) {
+            violated = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        }
+        if (violated == null) {
+            return false;
+        }
+        violated = violated.toLowerCase(Locale.ROOT);
+        for (String name : names) {
+            if (violated.contains(name.toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.microservices.commons.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Builds strong ETags from the field values of a representation, so conditional GETs can be answered
+ * without serializing the response body.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final MessageDigest digest;
+
+        private Builder() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        public Builder add(Object value) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0); // field separator, so ("ab", "c") and ("a", "bc") differ
+            return this;
+        }
+
+        public String build() {
+            byte[] hash = digest.digest();
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        }
+    }
+}
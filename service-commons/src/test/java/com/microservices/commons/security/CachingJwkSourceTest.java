@@ -0,0 +1,136 @@
+package com.microservices.commons.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingJwkSourceTest {
+
+    @TempDir
+    Path directory;
+
+    private HttpServer jwksServer;
+    private CachingJwkSource jwkSource;
+
+    @AfterEach
+    void stop() {
+        if (jwksServer != null) {
+            jwksServer.stop(0);
+        }
+        jwkSource.shutdown();
+    }
+
+    private static RSAKey rsaKey(String kid) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(kid).generate();
+    }
+
+    private static String token(RSAKey key) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("customer-service")
+                        .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    // Same wiring as SecurityConfig.jwtDecoder()
+    private JwtDecoder decoder() {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new CachingJwtDecoder(new NimbusJwtDecoder(jwtProcessor), 100, Duration.ofMinutes(5));
+    }
+
+    private URL serve(JWKSet jwkSet, AtomicInteger fetches) throws Exception {
+        jwksServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        jwksServer.createContext("/certs", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = jwkSet.toString(true).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        jwksServer.start();
+        return new URL("http://127.0.0.1:" + jwksServer.getAddress().getPort() + "/certs");
+    }
+
+    private Path preload(RSAKey key) throws Exception {
+        Path file = directory.resolve("jwks.json");
+        Files.writeString(file, new JWKSet(key.toPublicJWK()).toString(true));
+        return file;
+    }
+
+    @Test
+    void verifiesOfflineWithPreloadedKeysAndCachesDecodedTokens() throws Exception {
+        RSAKey key = rsaKey("k1");
+        jwkSource = new CachingJwkSource(null, preload(key).toFile(), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(1));
+        JwtDecoder decoder = decoder();
+
+        String token = token(key);
+        assertSame(decoder.decode(token), decoder.decode(token));
+        assertThrows(JwtException.class, () -> decoder.decode(token(rsaKey("unknown"))));
+    }
+
+    @Test
+    void refetchesOnUnknownKidAtMostOncePerInterval() throws Exception {
+        RSAKey oldKey = rsaKey("old");
+        RSAKey rotatedKey = rsaKey("rotated");
+        AtomicInteger fetches = new AtomicInteger();
+        URL jwksUrl = serve(new JWKSet(List.of(oldKey.toPublicJWK(), rotatedKey.toPublicJWK())), fetches);
+        jwkSource = new CachingJwkSource(jwksUrl, preload(oldKey).toFile(), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(1));
+        JwtDecoder decoder = decoder();
+
+        decoder.decode(token(oldKey));
+        assertEquals(0, fetches.get());
+
+        // Key rotation: the new kid is fetched once and then served from the cache
+        decoder.decode(token(rotatedKey));
+        decoder.decode(token(rotatedKey));
+        assertEquals(1, fetches.get());
+
+        // Forged kids cannot force further fetches within the interval
+        for (int i = 0; i < 5; i++) {
+            String forged = token(rsaKey("forged-" + i));
+            assertThrows(JwtException.class, () -> decoder.decode(forged));
+        }
+        assertEquals(1, fetches.get());
+    }
+}